@@ -0,0 +1,18 @@
+package com.digitalcafe.config;
+
+import com.digitalcafe.service.BookingChangeBus;
+import com.digitalcafe.service.InProcessBookingChangeBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BookingIndexConfig {
+
+    // Used unless a deployment provides a bus that reaches other nodes
+    @Bean
+    @ConditionalOnMissingBean(BookingChangeBus.class)
+    public BookingChangeBus bookingChangeBus() {
+        return new InProcessBookingChangeBus();
+    }
+}
@@ -19,6 +19,9 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot set headers, so event streams take a stream token in the query string
+    private static final String STREAM_TOKEN_PARAM = "access_token";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
 
@@ -31,19 +34,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         final String username;
+        final boolean fromQuery;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+            fromQuery = false;
+        } else if (request.getRequestURI().endsWith("/stream") && request.getParameter(STREAM_TOKEN_PARAM) != null) {
+            jwt = request.getParameter(STREAM_TOKEN_PARAM);
+            fromQuery = true;
+        } else {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
         username = jwtUtil.extractUsername(jwt);
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            // Stream tokens open nothing but streams, and no other token may travel in a URL
+            if (jwtUtil.validateToken(jwt, userDetails) && jwtUtil.isStreamToken(jwt) == fromQuery) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
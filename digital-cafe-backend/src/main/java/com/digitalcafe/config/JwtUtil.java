@@ -24,6 +24,12 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.stream-expiration:60000}")
+    private Long streamExpiration;
+
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String STREAM_SCOPE = "stream";
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -64,15 +70,30 @@ public class JwtUtil {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
         claims.put("userId", userId);
-        return createToken(claims, username);
+        return createToken(claims, username, expiration);
+    }
+
+    // Short-lived token for opening an event stream, where browsers cannot send headers
+    public String generateStreamToken(String username) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SCOPE_CLAIM, STREAM_SCOPE);
+        return createToken(claims, username, streamExpiration);
+    }
+
+    public Boolean isStreamToken(String token) {
+        return STREAM_SCOPE.equals(extractClaim(token, claims -> claims.get(SCOPE_CLAIM, String.class)));
+    }
+
+    public Long getStreamExpirationSeconds() {
+        return streamExpiration / 1000;
     }
 
-    private String createToken(Map<String, Object> claims, String username) {
+    private String createToken(Map<String, Object> claims, String username, Long validityMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setExpiration(new Date(System.currentTimeMillis() + validityMillis))
                 .signWith(getSignKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -0,0 +1,18 @@
+package com.digitalcafe.config;
+
+import com.digitalcafe.service.InProcessMenuCacheInvalidationBus;
+import com.digitalcafe.service.MenuCacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MenuCacheConfig {
+
+    // Used unless a deployment provides a bus that reaches other nodes
+    @Bean
+    @ConditionalOnMissingBean(MenuCacheInvalidationBus.class)
+    public MenuCacheInvalidationBus menuCacheInvalidationBus() {
+        return new InProcessMenuCacheInvalidationBus();
+    }
+}
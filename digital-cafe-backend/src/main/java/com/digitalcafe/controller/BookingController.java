@@ -1,17 +1,23 @@
 package com.digitalcafe.controller;
 
 import com.digitalcafe.dto.BookingDTO;
+import com.digitalcafe.dto.BookingGridDTO;
 import com.digitalcafe.dto.BookingRequestDTO;
+import com.digitalcafe.dto.CursorPageDTO;
 import com.digitalcafe.dto.MessageResponse;
+import com.digitalcafe.dto.TableDTO;
 import com.digitalcafe.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -37,17 +43,50 @@ public class BookingController {
     }
 
     /**
-     * Get all bookings for current customer
-     * GET /api/bookings/my-bookings
+     * Get bookings of the current customer, latest first, one page at a time
+     * GET /api/bookings/my-bookings?status=&from=&to=&cursor=&size=
      */
     @GetMapping("/my-bookings")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<BookingDTO>> getMyBookings(Authentication authentication) {
+    public ResponseEntity<CursorPageDTO<BookingDTO>> getMyBookings(
+            Authentication authentication,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         String username = authentication.getName();
-        List<BookingDTO> bookings = bookingService.getBookingsByCustomer(username);
+        CursorPageDTO<BookingDTO> bookings = bookingService.getBookingsByCustomer(username, status, from, to,
+                cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
+    /**
+     * Find tables free for a party at a given time, smallest first (public)
+     * GET /api/bookings/availability?cafeId=1&dateTime=2026-05-01T19:30&guests=4&durationMinutes=90
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<List<TableDTO>> getAvailableTables(
+            @RequestParam Long cafeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam Integer guests,
+            @RequestParam(required = false) Integer durationMinutes) {
+        return ResponseEntity.ok(bookingService.findAvailableTables(cafeId, dateTime, guests, durationMinutes));
+    }
+
+    /**
+     * Booked time slots of all tables of a cafe over a date range, for the booking screen (public)
+     * GET /api/bookings/grid?cafeId=1&from=2026-05-01&to=2026-05-07&slotMinutes=15
+     */
+    @GetMapping("/grid")
+    public ResponseEntity<BookingGridDTO> getBookingGrid(
+            @RequestParam Long cafeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "15") int slotMinutes) {
+        return ResponseEntity.ok(bookingService.getBookingGrid(cafeId, from, to, slotMinutes));
+    }
+
     /**
      * Get booking by ID
      * GET /api/bookings/{id}
@@ -59,13 +98,19 @@ public class BookingController {
     }
 
     /**
-     * Get all bookings for a cafe (Cafe Owner, Chef, Waiter)
-     * GET /api/bookings/cafe/{cafeId}
+     * Get bookings for a cafe, latest first, one page at a time (Cafe Owner, Chef, Waiter)
+     * GET /api/bookings/cafe/{cafeId}?status=&from=&to=&cursor=&size=
      */
     @GetMapping("/cafe/{cafeId}")
     @PreAuthorize("hasAnyRole('CAFE_OWNER', 'CHEF', 'WAITER')")
-    public ResponseEntity<List<BookingDTO>> getBookingsByCafe(@PathVariable Long cafeId) {
-        List<BookingDTO> bookings = bookingService.getBookingsByCafe(cafeId);
+    public ResponseEntity<CursorPageDTO<BookingDTO>> getBookingsByCafe(
+            @PathVariable Long cafeId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<BookingDTO> bookings = bookingService.getBookingsByCafe(cafeId, status, from, to, cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
@@ -3,7 +3,10 @@ package com.digitalcafe.controller;
 import com.digitalcafe.dto.CreateCafeRequest;
 import com.digitalcafe.model.Cafe;
 import com.digitalcafe.service.CafeService;
+import com.digitalcafe.util.ETags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,28 +21,51 @@ public class CafeController {
 
     private final CafeService cafeService;
 
+    // Cafe reads share one catalog version: a current If-None-Match gets 304 without a query
     @GetMapping
-    public ResponseEntity<List<Cafe>> getAllCafes() {
+    public ResponseEntity<List<Cafe>> getAllCafes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = cafeService.getCafeListETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         List<Cafe> cafes = cafeService.getAllCafes();
-        return ResponseEntity.ok(cafes);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cafes);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cafe> getCafeById(@PathVariable Long id) {
+    public ResponseEntity<Cafe> getCafeById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = cafeService.getCafeListETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         Cafe cafe = cafeService.getCafeById(id);
-        return ResponseEntity.ok(cafe);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cafe);
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<Cafe>> getActiveCafes() {
+    public ResponseEntity<List<Cafe>> getActiveCafes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = cafeService.getCafeListETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         List<Cafe> cafes = cafeService.getActiveCafes();
-        return ResponseEntity.ok(cafes);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cafes);
     }
 
     @GetMapping("/city/{city}")
-    public ResponseEntity<List<Cafe>> getCafesByCity(@PathVariable String city) {
+    public ResponseEntity<List<Cafe>> getCafesByCity(
+            @PathVariable String city,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = cafeService.getCafeListETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         List<Cafe> cafes = cafeService.getCafesByCity(city);
-        return ResponseEntity.ok(cafes);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cafes);
     }
 
     @PostMapping
@@ -61,4 +87,8 @@ public class CafeController {
         cafeService.deleteCafe(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
 }
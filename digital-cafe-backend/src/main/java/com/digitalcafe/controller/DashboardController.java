@@ -2,15 +2,21 @@ package com.digitalcafe.controller;
 
 import com.digitalcafe.dto.*;
 import com.digitalcafe.model.User;
+import com.digitalcafe.service.BookingSweeperService;
+import com.digitalcafe.service.DailyStatsService;
 import com.digitalcafe.service.DashboardService;
 import com.digitalcafe.config.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin(origins = "http://localhost:4200")
@@ -19,6 +25,12 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private BookingSweeperService bookingSweeperService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -40,6 +52,16 @@ public class DashboardController {
         return ResponseEntity.ok(dashboard);
     }
 
+    @GetMapping("/owner/popular-items")
+    @PreAuthorize("hasRole('CAFE_OWNER')")
+    public ResponseEntity<List<PopularItemDTO>> getPopularItems(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "WEEK") String window,
+            @RequestParam(required = false) Integer limit) {
+        Long userId = jwtUtil.extractUserId(extractTokenFromRequest(request));
+        return ResponseEntity.ok(dashboardService.getOwnerPopularItems(userId, window, limit));
+    }
+
     @GetMapping("/chef/{cafeId}")
     @PreAuthorize("hasRole('CHEF')")
     public ResponseEntity<ChefDashboardDTO> getChefDashboard(@PathVariable Long cafeId) {
@@ -47,6 +69,12 @@ public class DashboardController {
         return ResponseEntity.ok(dashboard);
     }
 
+    @GetMapping("/prep-times/{cafeId}")
+    @PreAuthorize("hasAnyRole('CAFE_OWNER', 'CHEF')")
+    public ResponseEntity<PreparationStatsDTO> getPreparationStats(@PathVariable Long cafeId) {
+        return ResponseEntity.ok(dashboardService.getPreparationStats(cafeId));
+    }
+
     @GetMapping("/waiter/{cafeId}")
     @PreAuthorize("hasRole('WAITER')")
     public ResponseEntity<WaiterDashboardDTO> getWaiterDashboard(@PathVariable Long cafeId) {
@@ -54,6 +82,22 @@ public class DashboardController {
         return ResponseEntity.ok(dashboard);
     }
 
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> rebuildDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long cafeId) {
+        int rebuilt = dailyStatsService.rebuild(cafeId, from, to);
+        return ResponseEntity.ok(new MessageResponse("Rebuilt daily stats for " + rebuilt + " cafe-days"));
+    }
+
+    @GetMapping("/booking-sweeper")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookingSweeperStatsDTO> getBookingSweeperStats() {
+        return ResponseEntity.ok(bookingSweeperService.getStats());
+    }
+
     private String extractTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
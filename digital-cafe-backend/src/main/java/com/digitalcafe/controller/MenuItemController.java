@@ -1,14 +1,29 @@
 package com.digitalcafe.controller;
 
+import com.digitalcafe.dto.MenuAvailabilityDTO;
 import com.digitalcafe.dto.MenuItemDTO;
 import com.digitalcafe.dto.MenuItemRequestDTO;
+import com.digitalcafe.dto.MenuStockDTO;
+import com.digitalcafe.dto.StockUpdateRequestDTO;
+import com.digitalcafe.service.CafeService;
+import com.digitalcafe.service.MenuAvailabilityFeedService;
+import com.digitalcafe.service.MenuCatalogCache;
 import com.digitalcafe.service.MenuItemService;
+import com.digitalcafe.util.ETags;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -18,6 +33,8 @@ import java.util.List;
 public class MenuItemController {
 
     private final MenuItemService menuItemService;
+    private final MenuAvailabilityFeedService menuAvailabilityFeedService;
+    private final CafeService cafeService;
 
     @GetMapping
     public ResponseEntity<List<MenuItemDTO>> getAllMenuItems() {
@@ -31,12 +48,80 @@ public class MenuItemController {
         return ResponseEntity.ok(menuItem);
     }
 
+    // Conditional GET: a current If-None-Match gets 304 before the menu is loaded; otherwise the
+    // cached JSON (gzipped when accepted) is written as-is
     @GetMapping("/cafe/{cafeId}")
-    public ResponseEntity<List<MenuItemDTO>> getMenuItemsByCafe(@PathVariable Long cafeId) {
-        List<MenuItemDTO> menuItems = menuItemService.getMenuItemsByCafe(cafeId);
+    public ResponseEntity<byte[]> getMenuItemsByCafe(
+            @PathVariable Long cafeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String currentETag = encodingETag(menuItemService.getMenuETag(cafeId), gzip);
+        if (ETags.matches(ifNoneMatch, currentETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(currentETag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        MenuCatalogCache.Snapshot menu = menuItemService.getMenuSnapshot(cafeId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(encodingETag(menu.etag(), gzip))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? menu.gzippedJson() : menu.json());
+    }
+
+    // Cheap polling alternative to the stream: 304 until any item of the cafe changes
+    @GetMapping("/cafe/{cafeId}/availability")
+    public ResponseEntity<MenuAvailabilityDTO> getMenuAvailability(
+            @PathVariable Long cafeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String currentETag = menuItemService.getMenuAvailabilityETag(cafeId);
+        if (ETags.matches(ifNoneMatch, currentETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+        }
+        MenuAvailabilityDTO availability = menuItemService.getMenuAvailability(cafeId);
+        return ResponseEntity.ok()
+                .eTag(availability.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(availability);
+    }
+
+    // Live availability bitmaps for ordering clients of one cafe; streams are capped per client address
+    @GetMapping(value = "/cafe/{cafeId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMenuAvailability(@PathVariable Long cafeId, HttpServletRequest request) {
+        return menuAvailabilityFeedService.subscribe(cafeId, request.getRemoteAddr());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<MenuItemDTO>> searchMenuItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long cafeId,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<MenuItemDTO> menuItems = menuItemService.searchMenuItems(q, cafeId, city, categoryId,
+                minPrice, maxPrice, available, limit);
         return ResponseEntity.ok(menuItems);
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocompleteMenuItems(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Long cafeId,
+            @RequestParam(required = false) String city,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(menuItemService.autocompleteMenuItems(prefix, cafeId, city, limit));
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<MenuItemDTO>> getMenuItemsByCategory(@PathVariable Long categoryId) {
         List<MenuItemDTO> menuItems = menuItemService.getMenuItemsByCategory(categoryId);
@@ -75,4 +160,26 @@ public class MenuItemController {
         MenuItemDTO menuItem = menuItemService.toggleAvailability(id);
         return ResponseEntity.ok(menuItem);
     }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<MenuStockDTO> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(menuItemService.getStock(id));
+    }
+
+    // Only staff of the item's own cafe may restock it
+    @PutMapping("/{id}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAFE_OWNER', 'CHEF')")
+    public ResponseEntity<MenuStockDTO> updateStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockUpdateRequestDTO stockUpdateRequestDTO,
+            Authentication authentication) {
+        cafeService.checkStaffAccess(menuItemService.getStock(id).getCafeId(), authentication.getName());
+        MenuStockDTO stock = menuItemService.updateStock(id, stockUpdateRequestDTO.getStockQuantity());
+        return ResponseEntity.ok(stock);
+    }
+
+    // Each encoding is a separate representation and needs its own strong ETag
+    private static String encodingETag(String etag, boolean gzip) {
+        return gzip ? ETags.variant(etag, "gzip") : etag;
+    }
 }
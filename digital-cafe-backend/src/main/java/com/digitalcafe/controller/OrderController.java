@@ -1,15 +1,27 @@
 package com.digitalcafe.controller;
 
+import com.digitalcafe.dto.BulkOrderTransitionRequestDTO;
+import com.digitalcafe.dto.BulkTransitionResultDTO;
+import com.digitalcafe.dto.CursorPageDTO;
 import com.digitalcafe.dto.OrderDTO;
 import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.dto.StreamTokenDTO;
+import com.digitalcafe.service.AuthService;
+import com.digitalcafe.service.CafeService;
+import com.digitalcafe.service.KitchenFeedService;
 import com.digitalcafe.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -19,10 +31,20 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final KitchenFeedService kitchenFeedService;
+    private final AuthService authService;
+    private final CafeService cafeService;
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getAllOrders(
+            @RequestParam(required = false) Long cafeId,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<OrderDTO> orders = orderService.getOrders(cafeId, customerId, status, from, to, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
@@ -33,20 +55,53 @@ public class OrderController {
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByCustomer(@PathVariable Long customerId) {
-        List<OrderDTO> orders = orderService.getOrdersByCustomer(customerId);
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getOrdersByCustomer(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<OrderDTO> orders = orderService.getOrders(null, customerId, status, from, to, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/cafe/{cafeId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByCafe(@PathVariable Long cafeId) {
-        List<OrderDTO> orders = orderService.getOrdersByCafe(cafeId);
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getOrdersByCafe(
+            @PathVariable Long cafeId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<OrderDTO> orders = orderService.getOrders(cafeId, null, status, from, to, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
+    // Live queue changes for kitchen and service screens of one cafe. Browsers open it with
+    // EventSource, passing a token from /stream-token as the access_token query parameter
+    @GetMapping(value = "/cafe/{cafeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAFE_OWNER', 'CHEF', 'WAITER')")
+    public SseEmitter streamCafeOrders(@PathVariable Long cafeId, Authentication authentication) {
+        cafeService.checkStaffAccess(cafeId, authentication.getName());
+        return kitchenFeedService.subscribe(cafeId);
+    }
+
+    @PostMapping("/stream-token")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAFE_OWNER', 'CHEF', 'WAITER')")
+    public ResponseEntity<StreamTokenDTO> createStreamToken(Authentication authentication) {
+        return ResponseEntity.ok(authService.createStreamToken(authentication.getName()));
+    }
+
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByStatus(@PathVariable String status) {
-        List<OrderDTO> orders = orderService.getOrdersByStatus(status);
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Long cafeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<OrderDTO> orders = orderService.getOrders(cafeId, null, status, from, to, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
@@ -111,6 +166,40 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    // Bulk transitions: one transaction per batch, with per-order success or failure in the result.
+    // The acting chef or waiter is the authenticated user
+    @PostMapping("/bulk/start-preparing")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<BulkTransitionResultDTO> startPreparingAll(
+            @Valid @RequestBody BulkOrderTransitionRequestDTO request, Authentication authentication) {
+        BulkTransitionResultDTO result = orderService.startPreparingAll(request.getOrderIds(), authentication.getName());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/mark-ready")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<BulkTransitionResultDTO> markReadyAll(
+            @Valid @RequestBody BulkOrderTransitionRequestDTO request, Authentication authentication) {
+        BulkTransitionResultDTO result = orderService.markReadyAll(request.getOrderIds(), authentication.getName());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/mark-served")
+    @PreAuthorize("hasRole('WAITER')")
+    public ResponseEntity<BulkTransitionResultDTO> markServedAll(
+            @Valid @RequestBody BulkOrderTransitionRequestDTO request, Authentication authentication) {
+        BulkTransitionResultDTO result = orderService.markServedAll(request.getOrderIds(), authentication.getName());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/complete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAFE_OWNER', 'WAITER')")
+    public ResponseEntity<BulkTransitionResultDTO> completeAll(
+            @Valid @RequestBody BulkOrderTransitionRequestDTO request) {
+        BulkTransitionResultDTO result = orderService.completeAll(request.getOrderIds());
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
@@ -0,0 +1,35 @@
+package com.digitalcafe.dto;
+
+import com.digitalcafe.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the in-memory kitchen queue, loaded by OrderRepository active-order projections.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveOrderDTO {
+    private Long id;
+    private Long cafeId;
+    private String orderNumber;
+    private String customerName;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private String tableNumber;
+    private LocalDateTime createdAt;
+
+    public ActiveOrderDTO withStatus(Order.OrderStatus newStatus) {
+        return new ActiveOrderDTO(id, cafeId, orderNumber, customerName, newStatus, totalAmount, tableNumber, createdAt);
+    }
+
+    public OrderSummaryDTO toSummary() {
+        return new OrderSummaryDTO(id, orderNumber, customerName, status.toString(), totalAmount,
+                tableNumber != null ? tableNumber : "N/A", createdAt.toString());
+    }
+}
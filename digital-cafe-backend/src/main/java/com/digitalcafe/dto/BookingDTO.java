@@ -5,7 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @Data
 @Builder
@@ -20,8 +22,18 @@ public class BookingDTO {
     private Long tableId;
     private String tableNumber;
     private LocalDateTime bookingDateTime;
+    private Integer durationMinutes;
     private Integer numberOfGuests;
     private String status;
     private String specialRequests;
     private LocalDateTime createdAt;
+
+    // Constructor projection used by TableBookingRepository read queries
+    public BookingDTO(Long id, Long customerId, String customerName, Long cafeId, String cafeName, Long tableId,
+                      String tableNumber, LocalDate bookingDate, LocalTime bookingTime, Integer durationMinutes,
+                      Integer numberOfGuests, String status, String specialRequests, LocalDateTime createdAt) {
+        this(id, customerId, customerName, cafeId, cafeName, tableId, tableNumber,
+                LocalDateTime.of(bookingDate, bookingTime), durationMinutes, numberOfGuests, status,
+                specialRequests, createdAt);
+    }
 }
@@ -0,0 +1,26 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Booked time of every bookable table of a cafe over a date range, in slots of slotMinutes
+ * starting at midnight. Each day holds one base64 bitmap per table, in the order of tables;
+ * bit i (byte i / 8, least significant bit first) is set when slot i overlaps a pending or
+ * confirmed booking.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingGridDTO {
+    private Long cafeId;
+    private LocalDate from;
+    private LocalDate to;
+    private Integer slotMinutes;
+    private List<TableDTO> tables;
+    private List<BookingGridDayDTO> days;
+}
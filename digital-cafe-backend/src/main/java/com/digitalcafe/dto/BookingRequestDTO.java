@@ -1,6 +1,7 @@
 package com.digitalcafe.dto;
 
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -25,5 +26,10 @@ public class BookingRequestDTO {
     @Positive(message = "Number of guests must be positive")
     private Integer numberOfGuests;
     
+    // Defaults to app.bookings.default-duration-minutes
+    @Positive(message = "Duration must be positive")
+    @Max(value = 480, message = "Duration cannot exceed 8 hours")
+    private Integer durationMinutes;
+
     private String specialRequests;
 }
@@ -0,0 +1,20 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Time a booking holds its table, as loaded for conflict checks and the availability index
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSlotDTO {
+    private Long bookingId;
+    private Long tableId;
+    private LocalDate bookingDate;
+    private LocalTime bookingTime;
+    private Integer durationMinutes;
+}
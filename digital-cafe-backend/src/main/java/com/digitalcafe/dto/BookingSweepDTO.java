@@ -0,0 +1,23 @@
+package com.digitalcafe.dto;
+
+import com.digitalcafe.model.TableBooking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// A pending or confirmed booking that has started, as scanned by the booking sweeper
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSweepDTO {
+    private Long id;
+    private Long cafeId;
+    private Long tableId;
+    private LocalDate bookingDate;
+    private LocalTime bookingTime;
+    private Integer durationMinutes;
+    private TableBooking.BookingStatus status;
+}
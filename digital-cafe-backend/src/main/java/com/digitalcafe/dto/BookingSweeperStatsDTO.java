@@ -0,0 +1,29 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counters of the booking sweeper. lastRunMaxLagSeconds is how long the most overdue booking of
+ * the last run had been due before it was swept; it grows when the sweep falls behind.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSweeperStatsDTO {
+    private LocalDateTime lastRunAt;
+    private Long lastRunMillis;
+    private Long lastRunNoShows;
+    private Long lastRunCompleted;
+    private Long lastRunTablesReleased;
+    private Long lastRunMaxLagSeconds;
+    private Long totalNoShows;
+    private Long totalCompleted;
+    private Long totalTablesReleased;
+    private Long runs;
+}
@@ -0,0 +1,18 @@
+package com.digitalcafe.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderTransitionRequestDTO {
+    @NotEmpty(message = "Order IDs are required")
+    @Size(max = 100, message = "At most 100 orders can be updated at once")
+    private List<Long> orderIds;
+}
@@ -0,0 +1,18 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionResultDTO {
+    private String status;
+    private List<Long> succeeded;
+    // Order id to the reason it was skipped
+    private Map<Long, String> failed;
+}
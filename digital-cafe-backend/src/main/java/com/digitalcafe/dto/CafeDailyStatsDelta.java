@@ -0,0 +1,57 @@
+package com.digitalcafe.dto;
+
+import com.digitalcafe.model.Order;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Increments applied to one cafe_daily_stats row by CafeDailyStatsRepository.applyDelta.
+ */
+@Data
+public class CafeDailyStatsDelta {
+    private final Long cafeId;
+    private final LocalDate statDate;
+    private long orders;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private BigDecimal paidRevenue = BigDecimal.ZERO;
+    private BigDecimal refundedRevenue = BigDecimal.ZERO;
+    private final Map<Order.OrderStatus, Long> statusCounts = new EnumMap<>(Order.OrderStatus.class);
+
+    public void addStatus(Order.OrderStatus status, long delta) {
+        if (status != null) {
+            statusCounts.merge(status, delta, Long::sum);
+        }
+    }
+
+    public long getPlaced() {
+        return statusCounts.getOrDefault(Order.OrderStatus.PLACED, 0L);
+    }
+
+    public long getConfirmed() {
+        return statusCounts.getOrDefault(Order.OrderStatus.CONFIRMED, 0L);
+    }
+
+    public long getPreparing() {
+        return statusCounts.getOrDefault(Order.OrderStatus.PREPARING, 0L);
+    }
+
+    public long getReady() {
+        return statusCounts.getOrDefault(Order.OrderStatus.READY, 0L);
+    }
+
+    public long getServed() {
+        return statusCounts.getOrDefault(Order.OrderStatus.SERVED, 0L);
+    }
+
+    public long getCompleted() {
+        return statusCounts.getOrDefault(Order.OrderStatus.COMPLETED, 0L);
+    }
+
+    public long getCancelled() {
+        return statusCounts.getOrDefault(Order.OrderStatus.CANCELLED, 0L);
+    }
+}
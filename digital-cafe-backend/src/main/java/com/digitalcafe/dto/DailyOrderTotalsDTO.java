@@ -0,0 +1,17 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderTotalsDTO {
+    private LocalDate date;
+    private BigDecimal revenue;
+    private Long orderCount;
+}
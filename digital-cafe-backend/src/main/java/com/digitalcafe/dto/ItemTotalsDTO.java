@@ -0,0 +1,16 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemTotalsDTO {
+    private Long menuItemId;
+    private Long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,24 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One queue change pushed to kitchen screens. A null previousStatus means the order is new;
+ * a null status means it was deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenFeedEventDTO {
+    private Long orderId;
+    private String orderNumber;
+    private String previousStatus;
+    private String status;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
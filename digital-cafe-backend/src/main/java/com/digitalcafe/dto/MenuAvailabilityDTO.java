@@ -0,0 +1,22 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Which items of a cafe menu can be ordered right now. Bit i of the base64 bitmap (byte i / 8,
+ * least significant bit first) is set when the item at itemIds[i] is available and active;
+ * itemIds follow the order of the menu endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuAvailabilityDTO {
+    private Long cafeId;
+    private String etag;
+    private List<Long> itemIds;
+    private String bitmap;
+}
@@ -0,0 +1,26 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One menu item as held by the search index, with the cafe city used for filtering
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSearchDocumentDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Long categoryId;
+    private String categoryName;
+    private Long cafeId;
+    private String cafeName;
+    private String city;
+    private String imageUrl;
+    private Boolean available;
+    private Boolean active;
+}
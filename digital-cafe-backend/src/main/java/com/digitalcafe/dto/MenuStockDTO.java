@@ -0,0 +1,16 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stock level of one menu item; a null stockQuantity means stock is not tracked
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuStockDTO {
+    private Long menuItemId;
+    private Long cafeId;
+    private Integer stockQuantity;
+    private Boolean available;
+}
@@ -24,4 +24,12 @@ public class OrderDTO {
     private String specialInstructions;
     private LocalDateTime createdAt;
     private List<OrderItemDTO> orderItems;
+
+    // Constructor projection used by OrderRepository read queries; items are attached afterwards
+    public OrderDTO(Long id, String orderNumber, Long customerId, String customerName, Long cafeId,
+                    String cafeName, String status, String orderType, BigDecimal totalAmount,
+                    String specialInstructions, LocalDateTime createdAt) {
+        this(id, orderNumber, customerId, customerName, cafeId, cafeName, status, orderType,
+                totalAmount, specialInstructions, createdAt, null);
+    }
 }
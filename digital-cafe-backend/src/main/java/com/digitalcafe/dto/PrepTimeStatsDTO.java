@@ -0,0 +1,16 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrepTimeStatsDTO {
+    private Long sampleCount;
+    private Double meanMinutes;
+    private Double p50Minutes;
+    private Double p90Minutes;
+    private Double p99Minutes;
+}
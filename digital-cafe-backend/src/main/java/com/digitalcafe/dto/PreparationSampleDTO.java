@@ -0,0 +1,19 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparationSampleDTO {
+    private Long orderId;
+    private Long cafeId;
+    private Long chefId;
+    private LocalDateTime preparingStartedAt;
+    private LocalDateTime readyAt;
+    private Long menuItemId;
+}
@@ -0,0 +1,18 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparationStatsDTO {
+    private Long cafeId;
+    private Integer windowDays;
+    private PrepTimeStatsDTO cafe;
+    private Map<Long, PrepTimeStatsDTO> byChef;
+    private Map<Long, PrepTimeStatsDTO> byMenuItem;
+}
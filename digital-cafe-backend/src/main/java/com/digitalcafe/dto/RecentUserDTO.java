@@ -1,9 +1,12 @@
 package com.digitalcafe.dto;
 
+import com.digitalcafe.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,4 +18,10 @@ public class RecentUserDTO {
     private Boolean emailVerified;
     private Boolean profileCompleted;
     private String createdAt;
+
+    // Constructor projection used by UserRepository.findRecentUsers
+    public RecentUserDTO(Long id, String username, String email, User.Role role, Boolean emailVerified,
+                         Boolean profileCompleted, LocalDateTime createdAt) {
+        this(id, username, email, role.toString(), emailVerified, profileCompleted, createdAt.toString());
+    }
 }
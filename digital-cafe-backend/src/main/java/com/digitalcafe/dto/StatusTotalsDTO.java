@@ -0,0 +1,16 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTotalsDTO {
+    private String status;
+    private Long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,15 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Quantity of one stock-tracked menu item within an order, for returning stock on cancellation
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockQuantityDTO {
+    private Long menuItemId;
+    private Long cafeId;
+    private Long quantity;
+}
@@ -0,0 +1,16 @@
+package com.digitalcafe.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockUpdateRequestDTO {
+
+    // null stops tracking stock for the item
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
+}
@@ -0,0 +1,13 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTokenDTO {
+    private String token;
+    private Long expiresInSeconds;
+}
@@ -0,0 +1,17 @@
+package com.digitalcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleStatsDTO {
+    private String role;
+    private Long total;
+    private Long active;
+    private Long unverifiedEmails;
+    private Long incompleteProfiles;
+    private Long registeredSince;
+}
@@ -0,0 +1,25 @@
+package com.digitalcafe.event;
+
+import com.digitalcafe.model.TableBooking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Published inside the transaction that creates a booking or changes its status, so the table
+ * availability index can patch the affected cafe-day after commit.
+ */
+public record BookingChangedEvent(Long bookingId,
+                                  Long cafeId,
+                                  Long tableId,
+                                  LocalDate bookingDate,
+                                  LocalTime bookingTime,
+                                  Integer durationMinutes,
+                                  TableBooking.BookingStatus status) {
+
+    public static BookingChangedEvent of(TableBooking booking) {
+        return new BookingChangedEvent(booking.getId(), booking.getCafe().getId(), booking.getTable().getId(),
+                booking.getBookingDate(), booking.getBookingTime(), booking.getDurationMinutes(),
+                booking.getStatus());
+    }
+}
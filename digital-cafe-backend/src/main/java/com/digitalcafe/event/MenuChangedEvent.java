@@ -0,0 +1,22 @@
+package com.digitalcafe.event;
+
+/**
+ * Published inside a transaction that changes what a cafe's menu shows: its items, their
+ * availability, or the category and cafe names copied into them. A null cafeId means every cafe.
+ * menuItemId names the single item that changed, if any; cafeChanged marks changes to the cafe
+ * itself, which also affect the cafe listings.
+ */
+public record MenuChangedEvent(Long cafeId, Long menuItemId, boolean cafeChanged) {
+
+    public static MenuChangedEvent forItem(Long cafeId, Long menuItemId) {
+        return new MenuChangedEvent(cafeId, menuItemId, false);
+    }
+
+    public static MenuChangedEvent cafeDetails(Long cafeId) {
+        return new MenuChangedEvent(cafeId, null, true);
+    }
+
+    public static MenuChangedEvent allCafes() {
+        return new MenuChangedEvent(null, null, false);
+    }
+}
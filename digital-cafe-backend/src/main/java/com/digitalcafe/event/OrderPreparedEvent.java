@@ -0,0 +1,28 @@
+package com.digitalcafe.event;
+
+import com.digitalcafe.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the transaction that marks an order READY, carrying what is needed to
+ * record its preparation time per cafe, chef and menu item.
+ */
+public record OrderPreparedEvent(Long orderId,
+                                 Long cafeId,
+                                 Long chefId,
+                                 LocalDateTime preparingStartedAt,
+                                 LocalDateTime readyAt,
+                                 List<Long> menuItemIds) {
+
+    public static OrderPreparedEvent of(Order order) {
+        List<Long> menuItemIds = order.getOrderItems().stream()
+                .map(item -> item.getMenuItem().getId())
+                .distinct()
+                .toList();
+        return new OrderPreparedEvent(order.getId(), order.getCafe().getId(),
+                order.getPreparedBy() != null ? order.getPreparedBy().getId() : null,
+                order.getPreparingStartedAt(), order.getReadyAt(), menuItemIds);
+    }
+}
@@ -0,0 +1,49 @@
+package com.digitalcafe.event;
+
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the transaction that creates, transitions or deletes an order.
+ * A null previousStatus means the order was created; a null status means it was deleted.
+ * Item lines are only carried when the change affects sold quantities (create, delete, cancel, un-cancel).
+ */
+public record OrderStatusChangedEvent(Long orderId,
+                                      String orderNumber,
+                                      Long cafeId,
+                                      LocalDateTime orderCreatedAt,
+                                      BigDecimal totalAmount,
+                                      Order.OrderStatus previousStatus,
+                                      Order.OrderStatus status,
+                                      List<ItemLine> items) {
+
+    public record ItemLine(Long menuItemId, Integer quantity, BigDecimal subtotal) {
+    }
+
+    public static OrderStatusChangedEvent of(Order order, Order.OrderStatus previousStatus) {
+        Order.OrderStatus status = order.getStatus();
+        List<OrderItem> items = affectsSoldItems(previousStatus, status) ? order.getOrderItems() : List.of();
+        return of(order, previousStatus, status, items != null ? items : List.of());
+    }
+
+    public static OrderStatusChangedEvent of(Order order, Order.OrderStatus previousStatus,
+                                             Order.OrderStatus status, List<OrderItem> items) {
+        List<ItemLine> lines = items.stream()
+                .map(item -> new ItemLine(item.getMenuItem().getId(), item.getQuantity(), item.getSubtotal()))
+                .toList();
+        return new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(), order.getCafe().getId(),
+                order.getCreatedAt(), order.getTotalAmount(), previousStatus, status, lines);
+    }
+
+    public static boolean affectsSoldItems(Order.OrderStatus previousStatus, Order.OrderStatus status) {
+        return countsAsSold(previousStatus) != countsAsSold(status);
+    }
+
+    public static boolean countsAsSold(Order.OrderStatus status) {
+        return status != null && status != Order.OrderStatus.CANCELLED;
+    }
+}
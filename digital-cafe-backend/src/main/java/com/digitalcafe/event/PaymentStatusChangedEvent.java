@@ -0,0 +1,21 @@
+package com.digitalcafe.event;
+
+import com.digitalcafe.model.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that moves a payment to SUCCESS or REFUNDED.
+ */
+public record PaymentStatusChangedEvent(Long paymentId,
+                                        Long cafeId,
+                                        LocalDateTime orderCreatedAt,
+                                        BigDecimal amount,
+                                        Payment.PaymentStatus status) {
+
+    public static PaymentStatusChangedEvent of(Payment payment) {
+        return new PaymentStatusChangedEvent(payment.getId(), payment.getOrder().getCafe().getId(),
+                payment.getOrder().getCreatedAt(), payment.getAmount(), payment.getPaymentStatus());
+    }
+}
@@ -0,0 +1,90 @@
+package com.digitalcafe.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Completed or cancelled order moved out of the live orders table once it is old enough.
+ * Keeps the original id and stores customer and cafe names as they were, so history reads need no joins.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_created", columnList = "created_at, id"),
+        @Index(name = "idx_orders_archive_cafe_created", columnList = "cafe_id, created_at, id"),
+        @Index(name = "idx_orders_archive_customer_created", columnList = "customer_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, unique = true)
+    private String orderNumber;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "customer_name")
+    private String customerName;
+
+    @Column(name = "cafe_id", nullable = false)
+    private Long cafeId;
+
+    @Column(name = "cafe_name")
+    private String cafeName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false)
+    private Order.OrderType orderType;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "special_instructions", length = 1000)
+    private String specialInstructions;
+
+    @Column(name = "prepared_by")
+    private Long preparedBy;
+
+    @Column(name = "served_by")
+    private Long servedBy;
+
+    @Column(name = "order_placed_at")
+    private LocalDateTime orderPlacedAt;
+
+    @Column(name = "preparing_started_at")
+    private LocalDateTime preparingStartedAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "served_at")
+    private LocalDateTime servedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,47 @@
+package com.digitalcafe.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Quantity of each menu item sold per cafe and day, excluding cancelled orders.
+ */
+@Entity
+@Table(name = "cafe_daily_item_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cafe_daily_item_stats_item", columnNames = {"cafe_id", "stat_date", "menu_item_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CafeDailyItemStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cafe_id", nullable = false)
+    private Long cafeId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    @Column(nullable = false)
+    private Long quantity = 0L;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
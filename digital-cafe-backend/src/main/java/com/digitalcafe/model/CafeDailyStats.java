@@ -0,0 +1,72 @@
+package com.digitalcafe.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily order rollup per cafe, keyed by the day the orders were created.
+ * Maintained incrementally from order and payment events and rebuilt from source by DailyStatsService.
+ */
+@Entity
+@Table(name = "cafe_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cafe_daily_stats_day", columnNames = {"cafe_id", "stat_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CafeDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cafe_id", nullable = false)
+    private Long cafeId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "paid_revenue", nullable = false, precision = 12, scale = 2)
+    private BigDecimal paidRevenue = BigDecimal.ZERO;
+
+    @Column(name = "refunded_revenue", nullable = false, precision = 12, scale = 2)
+    private BigDecimal refundedRevenue = BigDecimal.ZERO;
+
+    @Column(name = "placed_count", nullable = false)
+    private Long placedCount = 0L;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private Long confirmedCount = 0L;
+
+    @Column(name = "preparing_count", nullable = false)
+    private Long preparingCount = 0L;
+
+    @Column(name = "ready_count", nullable = false)
+    private Long readyCount = 0L;
+
+    @Column(name = "served_count", nullable = false)
+    private Long servedCount = 0L;
+
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -47,6 +47,10 @@ public class MenuItem {
     @Column(nullable = false)
     private Boolean available = true;
 
+    // Portions left; null means stock is not tracked and only the available flag applies
+    @Column(name = "stock_quantity")
+    private Integer stockQuantity;
+
     @Column(nullable = false)
     private Boolean active = true;
 
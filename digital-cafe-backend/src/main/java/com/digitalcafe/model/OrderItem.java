@@ -37,4 +37,9 @@ public class OrderItem {
 
     @Column(length = 500)
     private String notes;
+
+    // Portions this line took from the item's stock, and returns on cancellation; null when the
+    // item's stock was not tracked when ordered, and on lines written before this was recorded
+    @Column(name = "stock_taken")
+    private Integer stockTaken;
 }
@@ -0,0 +1,32 @@
+package com.digitalcafe.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-cafe high-water mark for order numbers.
+ * Application nodes reserve blocks of numbers from this row and hand them out from memory.
+ */
+@Entity
+@Table(name = "order_number_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNumberSequence {
+
+    @Id
+    @Column(name = "cafe_id")
+    private Long cafeId;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue = 1L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
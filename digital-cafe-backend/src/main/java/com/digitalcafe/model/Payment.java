@@ -25,6 +25,10 @@ public class Payment {
     @JoinColumn(name = "order_id")
     private Order order;
 
+    // Set when the order is moved to orders_archive, which clears order_id
+    @Column(name = "archived_order_id")
+    private Long archivedOrderId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id")
     private TableBooking booking;
@@ -12,7 +12,12 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "table_bookings")
+@Table(name = "table_bookings", indexes = {
+        @Index(name = "idx_table_bookings_cafe_date", columnList = "cafe_id, booking_date, booking_time, id"),
+        @Index(name = "idx_table_bookings_customer_date", columnList = "customer_id, booking_date, booking_time, id"),
+        @Index(name = "idx_table_bookings_table_date", columnList = "table_id, booking_date"),
+        @Index(name = "idx_table_bookings_status_start", columnList = "status, booking_date, booking_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +45,10 @@ public class TableBooking {
     @Column(name = "booking_time", nullable = false)
     private LocalTime bookingTime;
 
+    // Minutes the table is held from bookingTime; null on bookings made before durations were recorded
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
     @Column(name = "number_of_guests", nullable = false)
     private Integer numberOfGuests;
 
@@ -0,0 +1,25 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    List<ArchivedOrderItem> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, menu_item_id, menu_item_name, quantity, price, " +
+            "subtotal, notes) " +
+            "SELECT oi.id, oi.order_id, oi.menu_item_id, m.name, oi.quantity, oi.price, oi.subtotal, oi.notes " +
+            "FROM order_items oi JOIN menu_items m ON m.id = oi.menu_item_id WHERE oi.order_id IN (:orderIds)",
+            nativeQuery = true)
+    int copyFromOrderItems(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,60 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.model.ArchivedOrder;
+import com.digitalcafe.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    String ARCHIVED_ORDER_DTO_SELECT = "SELECT new com.digitalcafe.dto.OrderDTO(o.id, o.orderNumber, o.customerId, " +
+            "o.customerName, o.cafeId, o.cafeName, CAST(o.status AS String), CAST(o.orderType AS String), " +
+            "o.totalAmount, o.specialInstructions, o.createdAt) FROM ArchivedOrder o ";
+
+    @Query(ARCHIVED_ORDER_DTO_SELECT + "WHERE o.id = :id")
+    Optional<OrderDTO> findDTOById(@Param("id") Long id);
+
+    // Same keyset page as OrderRepository.findDTOPage, so the two can be merged
+    @Query(ARCHIVED_ORDER_DTO_SELECT +
+           "WHERE (:cafeId IS NULL OR o.cafeId = :cafeId) " +
+           "AND (:customerId IS NULL OR o.customerId = :customerId) " +
+           "AND (:status IS NULL OR o.status = :status) " +
+           "AND (:from IS NULL OR o.createdAt >= :from) " +
+           "AND (:to IS NULL OR o.createdAt < :to) " +
+           "AND (:afterCreatedAt IS NULL OR o.createdAt < :afterCreatedAt " +
+           "     OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDTO> findDTOPage(@Param("cafeId") Long cafeId,
+                               @Param("customerId") Long customerId,
+                               @Param("status") Order.OrderStatus status,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                               @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    // Copies live orders into the archive, capturing customer and cafe names
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, order_number, booking_id, customer_id, customer_name, cafe_id, " +
+            "cafe_name, status, order_type, total_amount, special_instructions, prepared_by, served_by, " +
+            "order_placed_at, preparing_started_at, ready_at, served_at, completed_at, created_at, updated_at, " +
+            "archived_at) " +
+            "SELECT o.id, o.order_number, o.booking_id, o.customer_id, u.username, o.cafe_id, c.name, o.status, " +
+            "o.order_type, o.total_amount, o.special_instructions, o.prepared_by, o.served_by, o.order_placed_at, " +
+            "o.preparing_started_at, o.ready_at, o.served_at, o.completed_at, o.created_at, o.updated_at, :now " +
+            "FROM orders o JOIN users u ON u.id = o.customer_id JOIN cafes c ON c.id = o.cafe_id " +
+            "WHERE o.id IN (:ids)",
+            nativeQuery = true)
+    int copyFromOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,44 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.dto.PopularItemDTO;
+import com.digitalcafe.model.CafeDailyItemStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CafeDailyItemStatsRepository extends JpaRepository<CafeDailyItemStats, Long> {
+
+    @Modifying
+    @Query("DELETE FROM CafeDailyItemStats s WHERE s.cafeId = :cafeId AND s.statDate = :statDate")
+    void deleteDay(@Param("cafeId") Long cafeId, @Param("statDate") LocalDate statDate);
+
+    // Best sellers over a day range; reads at most one row per item per day via the unique key prefix
+    @Query("SELECT new com.digitalcafe.dto.PopularItemDTO(s.menuItemId, m.name, SUM(s.quantity)) " +
+           "FROM CafeDailyItemStats s, MenuItem m WHERE m.id = s.menuItemId AND s.cafeId = :cafeId " +
+           "AND s.statDate BETWEEN :from AND :to GROUP BY s.menuItemId, m.name " +
+           "HAVING SUM(s.quantity) > 0 ORDER BY SUM(s.quantity) DESC, s.menuItemId")
+    List<PopularItemDTO> findTopItems(@Param("cafeId") Long cafeId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO cafe_daily_item_stats (cafe_id, stat_date, menu_item_id, quantity, revenue, updated_at) " +
+            "VALUES (:cafeId, :statDate, :menuItemId, :quantity, :revenue, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, revenue = revenue + :revenue, " +
+            "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void addQuantity(@Param("cafeId") Long cafeId,
+                     @Param("statDate") LocalDate statDate,
+                     @Param("menuItemId") Long menuItemId,
+                     @Param("quantity") long quantity,
+                     @Param("revenue") BigDecimal revenue);
+}
@@ -0,0 +1,50 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.dto.CafeDailyStatsDelta;
+import com.digitalcafe.dto.DailyOrderTotalsDTO;
+import com.digitalcafe.model.CafeDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CafeDailyStatsRepository extends JpaRepository<CafeDailyStats, Long> {
+    Optional<CafeDailyStats> findByCafeIdAndStatDate(Long cafeId, LocalDate statDate);
+
+    @Modifying
+    @Query("DELETE FROM CafeDailyStats s WHERE s.cafeId = :cafeId AND s.statDate = :statDate")
+    void deleteDay(@Param("cafeId") Long cafeId, @Param("statDate") LocalDate statDate);
+
+    @Query("SELECT new com.digitalcafe.dto.DailyOrderTotalsDTO(s.statDate, s.revenue, s.orderCount) " +
+           "FROM CafeDailyStats s WHERE s.cafeId = :cafeId AND s.statDate BETWEEN :from AND :to")
+    List<DailyOrderTotalsDTO> findDailyTotals(@Param("cafeId") Long cafeId,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+
+    @Query("SELECT DISTINCT s.cafeId FROM CafeDailyStats s WHERE s.statDate BETWEEN :from AND :to")
+    List<Long> findCafeIdsWithStatsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Single-statement upsert so concurrent writers never race on row creation
+    @Modifying
+    @Query(value = "INSERT INTO cafe_daily_stats (cafe_id, stat_date, order_count, revenue, paid_revenue, " +
+            "refunded_revenue, placed_count, confirmed_count, preparing_count, ready_count, served_count, " +
+            "completed_count, cancelled_count, updated_at) VALUES (:#{#d.cafeId}, :#{#d.statDate}, " +
+            ":#{#d.orders}, :#{#d.revenue}, :#{#d.paidRevenue}, :#{#d.refundedRevenue}, :#{#d.placed}, " +
+            ":#{#d.confirmed}, :#{#d.preparing}, :#{#d.ready}, :#{#d.served}, :#{#d.completed}, " +
+            ":#{#d.cancelled}, CURRENT_TIMESTAMP) ON DUPLICATE KEY UPDATE " +
+            "order_count = order_count + :#{#d.orders}, revenue = revenue + :#{#d.revenue}, " +
+            "paid_revenue = paid_revenue + :#{#d.paidRevenue}, " +
+            "refunded_revenue = refunded_revenue + :#{#d.refundedRevenue}, " +
+            "placed_count = placed_count + :#{#d.placed}, confirmed_count = confirmed_count + :#{#d.confirmed}, " +
+            "preparing_count = preparing_count + :#{#d.preparing}, ready_count = ready_count + :#{#d.ready}, " +
+            "served_count = served_count + :#{#d.served}, completed_count = completed_count + :#{#d.completed}, " +
+            "cancelled_count = cancelled_count + :#{#d.cancelled}, updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void applyDelta(@Param("d") CafeDailyStatsDelta d);
+}
@@ -3,6 +3,8 @@ package com.digitalcafe.repository;
 import com.digitalcafe.model.Cafe;
 import com.digitalcafe.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,10 @@ public interface CafeRepository extends JpaRepository<Cafe, Long> {
     List<Cafe> findByOwnerId(Long ownerId);
     List<Cafe> findByOwnerIdAndActive(Long ownerId, Boolean active);
     List<Cafe> findByOwner(User owner);
+
+    // Admins work everywhere, owners at their cafes, chefs and waiters at the cafes of the owner who hired them
+    @Query("SELECT COUNT(c) > 0 FROM Cafe c, User u WHERE c.id = :cafeId AND u.username = :username " +
+           "AND (u.role = 'ADMIN' OR c.owner.id = u.id " +
+           "OR (u.role IN ('CHEF', 'WAITER') AND c.owner.id = u.createdBy.id))")
+    boolean isStaffOf(@Param("cafeId") Long cafeId, @Param("username") String username);
 }
@@ -1,10 +1,21 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.TableDTO;
 import com.digitalcafe.model.CafeTable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CafeTableRepository extends JpaRepository<CafeTable, Long> {
@@ -12,6 +23,28 @@ public interface CafeTableRepository extends JpaRepository<CafeTable, Long> {
     List<CafeTable> findByCafeIdAndStatus(Long cafeId, CafeTable.TableStatus status);
     List<CafeTable> findByActive(Boolean active);
     
+    // Serialises bookings of one table across nodes; bookings of other tables are not blocked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM CafeTable t WHERE t.id = :id")
+    Optional<CafeTable> findByIdForUpdate(@Param("id") Long id);
+
+    // Tables that can take bookings, as returned by the availability search
+    @Query("SELECT new com.digitalcafe.dto.TableDTO(t.id, c.id, c.name, t.tableNumber, t.capacity, t.location, true) " +
+           "FROM CafeTable t JOIN t.cafe c WHERE c.id = :cafeId AND t.active = true AND t.status = 'AVAILABLE' " +
+           "ORDER BY t.capacity, t.tableNumber")
+    List<TableDTO> findBookableTables(@Param("cafeId") Long cafeId);
+
+    // Frees reserved or occupied tables that have no pending or confirmed booking started by (date, time)
+    @Modifying
+    @Query("UPDATE CafeTable t SET t.status = 'AVAILABLE', t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.status IN ('RESERVED', 'OCCUPIED') AND NOT EXISTS (" +
+           "SELECT b.id FROM TableBooking b WHERE b.table.id = t.id AND b.status IN ('PENDING', 'CONFIRMED') " +
+           "AND (b.bookingDate < :date OR (b.bookingDate = :date AND b.bookingTime <= :time)))")
+    int releaseIfIdle(@Param("ids") Collection<Long> ids,
+                      @Param("date") LocalDate date,
+                      @Param("time") LocalTime time,
+                      @Param("now") LocalDateTime now);
+
     // Dashboard queries
     Long countByCafeId(Long cafeId);
 }
@@ -1,18 +1,88 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.MenuItemDTO;
+import com.digitalcafe.dto.MenuSearchDocumentDTO;
+import com.digitalcafe.dto.MenuStockDTO;
 import com.digitalcafe.model.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
+
+    // Menu item rows with category and cafe names joined in, so reads never touch the lazy associations
+    String DTO_SELECT = "SELECT new com.digitalcafe.dto.MenuItemDTO(m.id, m.name, m.description, m.price, " +
+            "c.id, c.name, ca.id, ca.name, m.imageUrl, m.available, m.active) " +
+            "FROM MenuItem m JOIN m.category c JOIN m.cafe ca ";
+
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.digitalcafe.dto.MenuSearchDocumentDTO(m.id, m.name, " +
+            "m.description, m.price, c.id, c.name, ca.id, ca.name, ca.city, m.imageUrl, m.available, m.active) " +
+            "FROM MenuItem m JOIN m.category c JOIN m.cafe ca ";
+
     List<MenuItem> findByCategoryId(Long categoryId);
     List<MenuItem> findByCafeId(Long cafeId);
     List<MenuItem> findByCafeIdAndCategoryId(Long cafeId, Long categoryId);
     List<MenuItem> findByAvailableAndActive(Boolean available, Boolean active);
+
+    @Query(DTO_SELECT + "ORDER BY m.id")
+    List<MenuItemDTO> findAllDTOs();
+
+    @Query(DTO_SELECT + "WHERE m.id = :id")
+    Optional<MenuItemDTO> findDTOById(@Param("id") Long id);
+
+    // Full menu of a cafe in one query, for the menu snapshot cache
+    @Query(DTO_SELECT + "WHERE ca.id = :cafeId ORDER BY m.id")
+    List<MenuItemDTO> findDTOByCafeId(@Param("cafeId") Long cafeId);
+
+    @Query(DTO_SELECT + "WHERE c.id = :categoryId ORDER BY m.id")
+    List<MenuItemDTO> findDTOByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(DTO_SELECT + "WHERE m.available = :available AND m.active = :active ORDER BY m.id")
+    List<MenuItemDTO> findDTOByAvailableAndActive(@Param("available") Boolean available,
+                                                  @Param("active") Boolean active);
     
     // Dashboard queries
     Long countByCafeId(Long cafeId);
+
+    // Search index loads: everything at startup, one cafe or one item on change
+    @Query(SEARCH_DOCUMENT_SELECT + "ORDER BY m.id")
+    List<MenuSearchDocumentDTO> findSearchDocuments();
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE ca.id = :cafeId")
+    List<MenuSearchDocumentDTO> findSearchDocumentsByCafeId(@Param("cafeId") Long cafeId);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE m.id = :id")
+    Optional<MenuSearchDocumentDTO> findSearchDocumentById(@Param("id") Long id);
+
+    @Query("SELECT new com.digitalcafe.dto.MenuStockDTO(m.id, m.cafe.id, m.stockQuantity, m.available) " +
+           "FROM MenuItem m WHERE m.id = :id")
+    Optional<MenuStockDTO> findStockById(@Param("id") Long id);
+
+    // Stock moves as conditional updates on the row, so concurrent orders can never oversell an item
+    @Modifying
+    @Query("UPDATE MenuItem m SET m.stockQuantity = m.stockQuantity - :quantity " +
+           "WHERE m.id = :id AND m.available = true AND m.stockQuantity >= :quantity")
+    int takeStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE MenuItem m SET m.available = false " +
+           "WHERE m.id = :id AND m.available = true AND m.stockQuantity = 0")
+    int markSoldOutIfEmpty(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE MenuItem m SET m.stockQuantity = m.stockQuantity + :quantity " +
+           "WHERE m.id = :id AND m.stockQuantity IS NOT NULL")
+    int returnStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // After returnStock: an item whose stock was zero before the return had sold out and is back on
+    @Modifying
+    @Query("UPDATE MenuItem m SET m.available = true " +
+           "WHERE m.id = :id AND m.available = false AND m.stockQuantity = :quantity")
+    int markAvailableIfRestocked(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -1,12 +1,48 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.ItemTotalsDTO;
+import com.digitalcafe.dto.PreparationSampleDTO;
+import com.digitalcafe.dto.StockQuantityDTO;
 import com.digitalcafe.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, OrderItemRepositoryCustom {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.menuItem WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findWithMenuItemByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteAllByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Sold quantities per menu item, excluding cancelled orders, for rebuilding the daily rollup
+    @Query("SELECT new com.digitalcafe.dto.ItemTotalsDTO(oi.menuItem.id, SUM(oi.quantity), SUM(oi.subtotal)) " +
+           "FROM OrderItem oi JOIN oi.order o WHERE o.cafe.id = :cafeId " +
+           "AND o.createdAt >= :start AND o.createdAt < :end AND o.status <> 'CANCELLED' " +
+           "GROUP BY oi.menuItem.id")
+    List<ItemTotalsDTO> sumSoldItems(@Param("cafeId") Long cafeId,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+
+    // One row per item of every order prepared since the given time, grouped by order for warm-up
+    @Query("SELECT new com.digitalcafe.dto.PreparationSampleDTO(o.id, o.cafe.id, c.id, o.preparingStartedAt, " +
+           "o.readyAt, oi.menuItem.id) FROM OrderItem oi JOIN oi.order o LEFT JOIN o.preparedBy c " +
+           "WHERE o.readyAt >= :since AND o.preparingStartedAt IS NOT NULL ORDER BY o.id")
+    List<PreparationSampleDTO> findPreparationSamplesSince(@Param("since") LocalDateTime since);
+
+    // Stock taken by the lines of one order, per menu item in menu item id order
+    @Query("SELECT new com.digitalcafe.dto.StockQuantityDTO(m.id, m.cafe.id, SUM(oi.stockTaken)) " +
+           "FROM OrderItem oi JOIN oi.menuItem m WHERE oi.order.id = :orderId AND oi.stockTaken IS NOT NULL " +
+           "GROUP BY m.id, m.cafe.id ORDER BY m.id")
+    List<StockQuantityDTO> findStockQuantitiesByOrderId(@Param("orderId") Long orderId);
 }
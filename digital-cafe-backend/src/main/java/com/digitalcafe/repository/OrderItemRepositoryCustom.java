@@ -0,0 +1,14 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.model.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemRepositoryCustom {
+
+    /**
+     * Inserts all order items with a single JDBC batch and assigns the generated ids
+     * back onto the given instances. The owning order must already be persisted.
+     */
+    void batchInsert(List<OrderItem> orderItems);
+}
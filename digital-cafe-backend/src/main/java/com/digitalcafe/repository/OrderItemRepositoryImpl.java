@@ -0,0 +1,69 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.model.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class OrderItemRepositoryImpl implements OrderItemRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (order_id, menu_item_id, quantity, price, subtotal, notes, stock_taken) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<OrderItem> orderItems) {
+        if (orderItems.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OrderItem item = orderItems.get(i);
+                        ps.setLong(1, item.getOrder().getId());
+                        ps.setLong(2, item.getMenuItem().getId());
+                        ps.setInt(3, item.getQuantity());
+                        ps.setBigDecimal(4, item.getPrice());
+                        ps.setBigDecimal(5, item.getSubtotal());
+                        if (item.getNotes() != null) {
+                            ps.setString(6, item.getNotes());
+                        } else {
+                            ps.setNull(6, Types.VARCHAR);
+                        }
+                        if (item.getStockTaken() != null) {
+                            ps.setInt(7, item.getStockTaken());
+                        } else {
+                            ps.setNull(7, Types.INTEGER);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orderItems.size();
+                    }
+                },
+                keyHolder);
+
+        // Generated keys come back in insertion order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < orderItems.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            orderItems.get(i).setId(((Number) key).longValue());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.digitalcafe.repository;
+
+import com.digitalcafe.model.OrderNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderNumberSequenceRepository extends JpaRepository<OrderNumberSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderNumberSequence s WHERE s.cafeId = :cafeId")
+    Optional<OrderNumberSequence> findByCafeIdForUpdate(@Param("cafeId") Long cafeId);
+
+    // Creates the row if missing; a concurrent insert by another node is ignored rather than failing
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO order_number_sequences (cafe_id, next_value, updated_at) " +
+            "VALUES (:cafeId, 1, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIfAbsent(@Param("cafeId") Long cafeId);
+}
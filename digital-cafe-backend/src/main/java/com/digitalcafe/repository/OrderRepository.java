@@ -1,11 +1,21 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.ActiveOrderDTO;
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.StatusTotalsDTO;
 import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +28,161 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCafeIdAndStatus(Long cafeId, Order.OrderStatus status);
     List<Order> findByBookingId(Long bookingId);
 
+    // Read models for the order endpoints: customer and cafe names are joined in, no entities are hydrated
+    String ORDER_DTO_SELECT = "SELECT new com.digitalcafe.dto.OrderDTO(o.id, o.orderNumber, cu.id, cu.username, " +
+            "ca.id, ca.name, CAST(o.status AS String), CAST(o.orderType AS String), o.totalAmount, " +
+            "o.specialInstructions, o.createdAt) FROM Order o JOIN o.customer cu JOIN o.cafe ca ";
+
+    @Query(ORDER_DTO_SELECT + "WHERE o.id = :id")
+    Optional<OrderDTO> findDTOById(@Param("id") Long id);
+
+    // Keyset page over (createdAt, id) newest first; every filter is optional
+    @Query(ORDER_DTO_SELECT +
+           "WHERE (:cafeId IS NULL OR ca.id = :cafeId) " +
+           "AND (:customerId IS NULL OR cu.id = :customerId) " +
+           "AND (:status IS NULL OR o.status = :status) " +
+           "AND (:from IS NULL OR o.createdAt >= :from) " +
+           "AND (:to IS NULL OR o.createdAt < :to) " +
+           "AND (:afterCreatedAt IS NULL OR o.createdAt < :afterCreatedAt " +
+           "     OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDTO> findDTOPage(@Param("cafeId") Long cafeId,
+                               @Param("customerId") Long customerId,
+                               @Param("status") Order.OrderStatus status,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                               @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    // Rows of the in-memory kitchen queue, with customer and table joined in
+    String ACTIVE_ORDER_SELECT = "SELECT new com.digitalcafe.dto.ActiveOrderDTO(o.id, o.cafe.id, o.orderNumber, " +
+            "cu.username, o.status, o.totalAmount, t.tableNumber, o.createdAt) " +
+            "FROM Order o JOIN o.customer cu LEFT JOIN o.booking b LEFT JOIN b.table t ";
+
+    @Query(ACTIVE_ORDER_SELECT + "WHERE o.id = :id")
+    Optional<ActiveOrderDTO> findActiveOrderById(@Param("id") Long id);
+
+    @Query(ACTIVE_ORDER_SELECT + "WHERE o.status IN :statuses ORDER BY o.createdAt ASC, o.id ASC")
+    List<ActiveOrderDTO> findActiveOrders(@Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    @Query(ACTIVE_ORDER_SELECT + "WHERE o.cafe.id = :cafeId AND o.status IN :statuses ORDER BY o.createdAt ASC, o.id ASC")
+    List<ActiveOrderDTO> findActiveOrdersByCafeId(@Param("cafeId") Long cafeId,
+                                                  @Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    // Orders in any status changed since the given time, for patching the kitchen queues
+    @Query(ACTIVE_ORDER_SELECT + "WHERE o.updatedAt >= :since")
+    List<ActiveOrderDTO> findOrdersUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Reads the latest committed row, used after losing a conditional transition. Takes the write
+    // lock a retried UPDATE needs anyway: two losers holding shared locks would deadlock upgrading
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findCurrentById(@Param("id") Long id);
+
+    // Version-checked transitions used by OrderStateMachine: each applies only while the order still has
+    // the status and version the caller read, so competing transitions of one order have a single winner
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int updateStatusIfUnchanged(@Param("id") Long id,
+                                @Param("from") Order.OrderStatus from,
+                                @Param("version") Long version,
+                                @Param("to") Order.OrderStatus to,
+                                @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'PREPARING', o.preparingStartedAt = :now, o.preparedBy = :chef, " +
+           "o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int startPreparingIfUnchanged(@Param("id") Long id,
+                                  @Param("from") Order.OrderStatus from,
+                                  @Param("version") Long version,
+                                  @Param("chef") User chef,
+                                  @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'READY', o.readyAt = :now, o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int markReadyIfUnchanged(@Param("id") Long id,
+                             @Param("from") Order.OrderStatus from,
+                             @Param("version") Long version,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'SERVED', o.servedAt = :now, o.servedBy = :waiter, " +
+           "o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int markServedIfUnchanged(@Param("id") Long id,
+                              @Param("from") Order.OrderStatus from,
+                              @Param("version") Long version,
+                              @Param("waiter") User waiter,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'COMPLETED', o.completedAt = :now, o.version = o.version + 1, " +
+           "o.updatedAt = :now WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int completeIfUnchanged(@Param("id") Long id,
+                            @Param("from") Order.OrderStatus from,
+                            @Param("version") Long version,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'CANCELLED', o.specialInstructions = :instructions, " +
+           "o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.version = :version")
+    int cancelIfUnchanged(@Param("id") Long id,
+                          @Param("from") Order.OrderStatus from,
+                          @Param("version") Long version,
+                          @Param("instructions") String instructions,
+                          @Param("now") LocalDateTime now);
+
+    // Locks a batch of orders in id order, so overlapping bulk transitions cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based transitions for bulk endpoints; callers lock and validate the batch first
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'PREPARING', o.preparingStartedAt = :now, o.preparedBy = :chef, " +
+           "o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id IN :ids AND o.status IN ('PLACED', 'CONFIRMED')")
+    int startPreparingAll(@Param("ids") Collection<Long> ids,
+                          @Param("chef") User chef,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'READY', o.readyAt = :now, o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id IN :ids AND o.status = 'PREPARING'")
+    int markReadyAll(@Param("ids") Collection<Long> ids,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'SERVED', o.servedAt = :now, o.servedBy = :waiter, " +
+           "o.version = o.version + 1, o.updatedAt = :now " +
+           "WHERE o.id IN :ids AND o.status = 'READY'")
+    int markServedAll(@Param("ids") Collection<Long> ids,
+                      @Param("waiter") User waiter,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'COMPLETED', o.completedAt = :now, o.version = o.version + 1, " +
+           "o.updatedAt = :now WHERE o.id IN :ids AND o.status = 'SERVED'")
+    int completeAll(@Param("ids") Collection<Long> ids,
+                    @Param("now") LocalDateTime now);
+
+    // Next chunk of finished orders old enough to archive, locked until the chunk commits. Orders
+    // with a payment still awaiting verification stay live until it settles
+    @Query(value = "SELECT id FROM orders WHERE status IN ('COMPLETED', 'CANCELLED') AND created_at < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.order_id = orders.id AND p.payment_status = 'PENDING') " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
     // Orders for Chef (PLACED, CONFIRMED orders that need to be prepared)
     @Query("SELECT o FROM Order o WHERE o.cafe.id = :cafeId " +
            "AND o.status IN ('PLACED', 'CONFIRMED') " +
@@ -50,4 +215,19 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCafeIdAndCreatedAtAfter(Long cafeId, LocalDateTime date);
     List<Order> findByCafeIdAndStatusInOrderByCreatedAtAsc(Long cafeId, List<Order.OrderStatus> statuses);
     List<Order> findByCafeIdAndStatusOrderByCreatedAtAsc(Long cafeId, Order.OrderStatus status);
+
+    // Source aggregates used to rebuild the daily rollup
+    @Query("SELECT new com.digitalcafe.dto.StatusTotalsDTO(CAST(o.status AS String), COUNT(o), SUM(o.totalAmount)) " +
+           "FROM Order o WHERE o.cafe.id = :cafeId AND o.createdAt >= :start AND o.createdAt < :end " +
+           "GROUP BY o.status")
+    List<StatusTotalsDTO> sumTotalsByStatus(@Param("cafeId") Long cafeId,
+                                            @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end);
+
+    @Query("SELECT DISTINCT o.cafe.id FROM Order o WHERE o.createdAt >= :start AND o.createdAt < :end")
+    List<Long> findCafeIdsWithOrdersBetween(@Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end);
+
+    @Query("SELECT MIN(o.createdAt) FROM Order o")
+    LocalDateTime findEarliestCreatedAt();
 }
@@ -1,9 +1,15 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.StatusTotalsDTO;
 import com.digitalcafe.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +17,22 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByTransactionId(String transactionId);
     Optional<Payment> findByOrderId(Long orderId);
+    Optional<Payment> findByArchivedOrderId(Long archivedOrderId);
     List<Payment> findByCustomerId(Long customerId);
     List<Payment> findByPaymentStatus(Payment.PaymentStatus status);
+
+    // Paid and refunded amounts for orders created in a range, for rebuilding the daily rollup
+    @Query("SELECT new com.digitalcafe.dto.StatusTotalsDTO(CAST(p.paymentStatus AS String), COUNT(p), SUM(p.amount)) " +
+           "FROM Payment p JOIN p.order o WHERE o.cafe.id = :cafeId " +
+           "AND o.createdAt >= :start AND o.createdAt < :end " +
+           "AND p.paymentStatus IN ('SUCCESS', 'REFUNDED') GROUP BY p.paymentStatus")
+    List<StatusTotalsDTO> sumSettledByStatus(@Param("cafeId") Long cafeId,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
+    // Points payments of archived orders at the archive before the live rows are deleted
+    @Modifying
+    @Query(value = "UPDATE payments SET archived_order_id = order_id, order_id = NULL WHERE order_id IN (:orderIds)",
+            nativeQuery = true)
+    int moveToArchivedOrders(@Param("orderIds") Collection<Long> orderIds);
 }
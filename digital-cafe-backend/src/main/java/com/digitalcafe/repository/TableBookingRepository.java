@@ -1,14 +1,22 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.BookingDTO;
+import com.digitalcafe.dto.BookingSlotDTO;
+import com.digitalcafe.dto.BookingSweepDTO;
 import com.digitalcafe.model.TableBooking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TableBookingRepository extends JpaRepository<TableBooking, Long> {
@@ -33,6 +41,79 @@ public interface TableBookingRepository extends JpaRepository<TableBooking, Long
                                                          @Param("date") LocalDate date,
                                                          @Param("time") LocalTime time);
     
+    // Read models for the booking endpoints: customer, cafe and table are joined in, no entities are hydrated
+    String BOOKING_DTO_SELECT = "SELECT new com.digitalcafe.dto.BookingDTO(b.id, cu.id, " +
+            "CASE WHEN p.id IS NULL THEN cu.username " +
+            "ELSE CONCAT(COALESCE(p.firstName, ''), ' ', COALESCE(p.lastName, '')) END, " +
+            "ca.id, ca.name, t.id, t.tableNumber, b.bookingDate, b.bookingTime, b.durationMinutes, " +
+            "b.numberOfGuests, CAST(b.status AS String), b.specialRequests, b.createdAt) " +
+            "FROM TableBooking b JOIN b.customer cu LEFT JOIN cu.profile p JOIN b.cafe ca JOIN b.table t ";
+
+    @Query(BOOKING_DTO_SELECT + "WHERE b.id = :id")
+    Optional<BookingDTO> findDTOById(@Param("id") Long id);
+
+    // Keyset page over (bookingDate, bookingTime, id) latest first; every filter is optional
+    @Query(BOOKING_DTO_SELECT +
+           "WHERE (:cafeId IS NULL OR ca.id = :cafeId) " +
+           "AND (:customerId IS NULL OR cu.id = :customerId) " +
+           "AND (:status IS NULL OR b.status = :status) " +
+           "AND (:from IS NULL OR b.bookingDate >= :from) " +
+           "AND (:to IS NULL OR b.bookingDate <= :to) " +
+           "AND (:afterDate IS NULL OR b.bookingDate < :afterDate " +
+           "     OR (b.bookingDate = :afterDate AND (b.bookingTime < :afterTime " +
+           "         OR (b.bookingTime = :afterTime AND b.id < :afterId)))) " +
+           "ORDER BY b.bookingDate DESC, b.bookingTime DESC, b.id DESC")
+    List<BookingDTO> findDTOPage(@Param("cafeId") Long cafeId,
+                                 @Param("customerId") Long customerId,
+                                 @Param("status") TableBooking.BookingStatus status,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to,
+                                 @Param("afterDate") LocalDate afterDate,
+                                 @Param("afterTime") LocalTime afterTime,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    // Slots of a whole cafe over a date range, for the availability index and booking grid
+    @Query("SELECT new com.digitalcafe.dto.BookingSlotDTO(b.id, b.table.id, b.bookingDate, b.bookingTime, " +
+           "b.durationMinutes) FROM TableBooking b WHERE b.cafe.id = :cafeId " +
+           "AND b.bookingDate BETWEEN :from AND :to AND b.status IN :statuses")
+    List<BookingSlotDTO> findSlotsByCafeIdAndDateBetween(@Param("cafeId") Long cafeId,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to,
+                                                         @Param("statuses") Collection<TableBooking.BookingStatus> statuses);
+
+    // Slots of one table over a few days, so bookings running past midnight are seen too
+    @Query("SELECT new com.digitalcafe.dto.BookingSlotDTO(b.id, b.table.id, b.bookingDate, b.bookingTime, " +
+           "b.durationMinutes) FROM TableBooking b WHERE b.table.id = :tableId " +
+           "AND b.bookingDate BETWEEN :from AND :to AND b.status IN :statuses")
+    List<BookingSlotDTO> findSlotsByTableIdAndDateBetween(@Param("tableId") Long tableId,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to,
+                                                          @Param("statuses") Collection<TableBooking.BookingStatus> statuses);
+
+    // Pending and confirmed bookings that started by (date, time), in start order after the given key
+    @Query("SELECT new com.digitalcafe.dto.BookingSweepDTO(b.id, b.cafe.id, b.table.id, b.bookingDate, " +
+           "b.bookingTime, b.durationMinutes, b.status) FROM TableBooking b " +
+           "WHERE b.status IN ('PENDING', 'CONFIRMED') " +
+           "AND (b.bookingDate < :date OR (b.bookingDate = :date AND b.bookingTime <= :time)) " +
+           "AND (b.bookingDate > :afterDate OR (b.bookingDate = :afterDate AND (b.bookingTime > :afterTime " +
+           "OR (b.bookingTime = :afterTime AND b.id > :afterId)))) " +
+           "ORDER BY b.bookingDate, b.bookingTime, b.id")
+    List<BookingSweepDTO> findStartedBookings(@Param("date") LocalDate date,
+                                              @Param("time") LocalTime time,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterTime") LocalTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    // Only rows still in the observed status move, so concurrent confirms and cancels win
+    @Modifying
+    @Query("UPDATE TableBooking b SET b.status = :to, b.updatedAt = :now WHERE b.id IN :ids AND b.status = :from")
+    int updateStatusIfUnchanged(@Param("ids") Collection<Long> ids,
+                                @Param("from") TableBooking.BookingStatus from,
+                                @Param("to") TableBooking.BookingStatus to,
+                                @Param("now") LocalDateTime now);
+
     // Dashboard queries
     Long countByCafeIdAndBookingDate(Long cafeId, LocalDate date);
     Long countByCafeIdAndBookingDateAndStatus(Long cafeId, LocalDate date, TableBooking.BookingStatus status);
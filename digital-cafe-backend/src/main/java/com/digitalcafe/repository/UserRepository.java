@@ -1,7 +1,13 @@
 package com.digitalcafe.repository;
 
+import com.digitalcafe.dto.DailyCountDTO;
+import com.digitalcafe.dto.RecentUserDTO;
+import com.digitalcafe.dto.UserRoleStatsDTO;
 import com.digitalcafe.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -17,14 +23,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByCreatedById(Long createdById);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    // Id only; loading the entity would also load its profile and email verification
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
     
     // Dashboard queries
-    Long countByActive(Boolean active);
-    Long countByEmailVerified(Boolean emailVerified);
-    Long countByProfileCompleted(Boolean profileCompleted);
-    Long countByCreatedAtAfter(LocalDateTime date);
-    Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
-    Long countByRole(User.Role role);
     Long countByRoleAndCreatedBy(User.Role role, User createdBy);
-    List<User> findTop10ByOrderByCreatedAtDesc();
+
+    // All per-user admin counters in one pass, one row per role
+    @Query("SELECT new com.digitalcafe.dto.UserRoleStatsDTO(CAST(u.role AS String), COUNT(u), " +
+           "SUM(CASE WHEN u.active = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN u.emailVerified = false THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN u.profileCompleted = false THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN u.createdAt >= :since THEN 1 ELSE 0 END)) " +
+           "FROM User u GROUP BY u.role")
+    List<UserRoleStatsDTO> summarizeByRole(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.digitalcafe.dto.DailyCountDTO(CAST(u.createdAt AS LocalDate), COUNT(u)) " +
+           "FROM User u WHERE u.createdAt >= :start GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<DailyCountDTO> countRegistrationsPerDay(@Param("start") LocalDateTime start);
+
+    @Query("SELECT new com.digitalcafe.dto.RecentUserDTO(u.id, u.username, u.email, u.role, u.emailVerified, " +
+           "u.profileCompleted, u.createdAt) FROM User u ORDER BY u.createdAt DESC, u.id DESC")
+    List<RecentUserDTO> findRecentUsers(Pageable pageable);
 }
@@ -34,6 +34,11 @@ public class AuthService {
     private final EmailService emailService;
     private final AuthenticationManager authenticationManager;
 
+    // Only opens event streams, and expires long before the stream itself does
+    public StreamTokenDTO createStreamToken(String username) {
+        return new StreamTokenDTO(jwtUtil.generateStreamToken(username), jwtUtil.getStreamExpirationSeconds());
+    }
+
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         // Check if email already exists
@@ -0,0 +1,20 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.event.BookingChangedEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries committed booking changes to the table availability index of every application node,
+ * including the one that published them.
+ *
+ * The default {@link InProcessBookingChangeBus} only reaches the local node. Multi-node
+ * deployments register their own bean (for example over Redis pub/sub or a message broker),
+ * which replaces the default.
+ */
+public interface BookingChangeBus {
+
+    void publish(BookingChangedEvent change);
+
+    void subscribe(Consumer<BookingChangedEvent> listener);
+}
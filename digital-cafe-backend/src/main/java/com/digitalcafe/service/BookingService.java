@@ -1,7 +1,12 @@
 package com.digitalcafe.service;
 
 import com.digitalcafe.dto.BookingDTO;
+import com.digitalcafe.dto.BookingGridDTO;
 import com.digitalcafe.dto.BookingRequestDTO;
+import com.digitalcafe.dto.BookingSlotDTO;
+import com.digitalcafe.dto.CursorPageDTO;
+import com.digitalcafe.dto.TableDTO;
+import com.digitalcafe.event.BookingChangedEvent;
 import com.digitalcafe.exception.BadRequestException;
 import com.digitalcafe.exception.ResourceNotFoundException;
 import com.digitalcafe.model.CafeTable;
@@ -10,28 +15,39 @@ import com.digitalcafe.model.User;
 import com.digitalcafe.repository.CafeTableRepository;
 import com.digitalcafe.repository.TableBookingRepository;
 import com.digitalcafe.repository.UserRepository;
+import com.digitalcafe.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
 
+    private static final int MAX_GRID_DAYS = 31;
+
     private final TableBookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final CafeTableRepository tableRepository;
+    private final TableAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BookingDTO createBooking(String username, BookingRequestDTO request) {
+        // Lock the table row before any other read, so the overlap check below runs after competing
+        // bookings of this table have committed and sees them even under a repeatable-read snapshot
+        CafeTable table = tableRepository.findByIdForUpdate(request.getTableId())
+                .orElseThrow(() -> new ResourceNotFoundException("Table not found"));
+
         User customer = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -43,9 +59,6 @@ public class BookingService {
             throw new BadRequestException("Please complete your profile before making a booking");
         }
 
-        CafeTable table = tableRepository.findById(request.getTableId())
-                .orElseThrow(() -> new ResourceNotFoundException("Table not found"));
-
         if (!table.getActive()) {
             throw new BadRequestException("Table is not active");
         }
@@ -54,15 +67,14 @@ public class BookingService {
             throw new BadRequestException("Table is not available for booking (Status: " + table.getStatus() + ")");
         }
 
-        // Check if table is already booked for the requested time
-        LocalDate bookingDate = request.getBookingDateTime().toLocalDate();
-        LocalTime bookingTime = request.getBookingDateTime().toLocalTime();
-
-        boolean isBooked = bookingRepository.existsByTableIdAndBookingDateAndBookingTime(
-                table.getId(), bookingDate, bookingTime
-        );
+        if (request.getNumberOfGuests() > table.getCapacity()) {
+            throw new BadRequestException("Table seats only " + table.getCapacity() + " guests");
+        }
 
-        if (isBooked) {
+        // Check the requested period against the table's bookings in the database, not the index
+        LocalDateTime start = request.getBookingDateTime();
+        int duration = availabilityIndex.durationOf(request.getDurationMinutes());
+        if (overlapsExistingBooking(table.getId(), start, duration)) {
             throw new BadRequestException("Table is already booked for this time");
         }
 
@@ -70,38 +82,62 @@ public class BookingService {
         booking.setCustomer(customer);
         booking.setTable(table);
         booking.setCafe(table.getCafe());
-        booking.setBookingDate(bookingDate);
-        booking.setBookingTime(bookingTime);
+        booking.setBookingDate(start.toLocalDate());
+        booking.setBookingTime(start.toLocalTime());
+        booking.setDurationMinutes(duration);
         booking.setNumberOfGuests(request.getNumberOfGuests());
         booking.setSpecialRequests(request.getSpecialRequests());
         booking.setStatus(TableBooking.BookingStatus.PENDING);
 
         booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking));
 
-        return convertToDTO(booking);
+        return getBookingById(booking.getId());
     }
 
     public BookingDTO getBookingById(Long id) {
-        TableBooking booking = bookingRepository.findById(id)
+        BookingDTO booking = bookingRepository.findDTOById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
-        return convertToDTO(booking);
+        return withDuration(booking);
     }
 
-    public List<BookingDTO> getBookingsByCustomer(String username) {
-        User customer = userRepository.findByUsername(username)
+    public CursorPageDTO<BookingDTO> getBookingsByCustomer(String username, String status, LocalDate from,
+                                                           LocalDate to, String cursor, Integer size) {
+        Long customerId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return getBookings(null, customerId, status, from, to, cursor, size);
+    }
 
-        return bookingRepository.findByCustomerId(customer.getId())
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<BookingDTO> getBookingsByCafe(Long cafeId, String status, LocalDate from, LocalDate to,
+                                                       String cursor, Integer size) {
+        return getBookings(cafeId, null, status, from, to, cursor, size);
     }
 
-    public List<BookingDTO> getBookingsByCafe(Long cafeId) {
-        return bookingRepository.findByCafeId(cafeId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Keyset page over booking start (date, time) and id, latest first; one query per page
+    private CursorPageDTO<BookingDTO> getBookings(Long cafeId, Long customerId, String status, LocalDate from,
+                                                  LocalDate to, String cursor, Integer size) {
+        TableBooking.BookingStatus bookingStatus = status != null
+                ? TableBooking.BookingStatus.valueOf(status.toUpperCase()) : null;
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        // Fetch one extra row to know whether another page exists
+        List<BookingDTO> bookings = bookingRepository.findDTOPage(cafeId, customerId, bookingStatus, from, to,
+                after != null ? after.timestamp().toLocalDate() : null,
+                after != null ? after.timestamp().toLocalTime() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = bookings.size() > pageSize;
+        List<BookingDTO> page = hasMore ? new ArrayList<>(bookings.subList(0, pageSize)) : bookings;
+        page.forEach(this::withDuration);
+
+        String nextCursor = null;
+        if (hasMore) {
+            BookingDTO last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getBookingDateTime(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(page, nextCursor, hasMore, page.size());
     }
 
     @Transactional
@@ -115,6 +151,7 @@ public class BookingService {
 
         booking.setStatus(TableBooking.BookingStatus.CANCELLED);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking));
     }
 
     @Transactional
@@ -124,6 +161,7 @@ public class BookingService {
 
         booking.setStatus(TableBooking.BookingStatus.CONFIRMED);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking));
     }
 
     @Transactional
@@ -133,25 +171,60 @@ public class BookingService {
 
         booking.setStatus(TableBooking.BookingStatus.COMPLETED);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking));
+    }
+
+    /**
+     * Bookable tables of the cafe that seat the guests and are free for the whole period,
+     * smallest first. Served from the in-memory availability index.
+     */
+    public List<TableDTO> findAvailableTables(Long cafeId, LocalDateTime dateTime, Integer guests,
+                                              Integer durationMinutes) {
+        if (guests == null || guests <= 0) {
+            throw new BadRequestException("Number of guests must be positive");
+        }
+        if (durationMinutes != null && (durationMinutes <= 0 || durationMinutes > 480)) {
+            throw new BadRequestException("Duration must be between 1 and 480 minutes");
+        }
+        return availabilityIndex.findFreeTables(cafeId, dateTime, availabilityIndex.durationOf(durationMinutes), guests);
+    }
+
+    /**
+     * Booked slots of every bookable table of the cafe from..to, for the booking screen.
+     * Served from the in-memory availability index.
+     */
+    public BookingGridDTO getBookingGrid(Long cafeId, LocalDate from, LocalDate to, int slotMinutes) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        if (from.plusDays(MAX_GRID_DAYS - 1).isBefore(to)) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_GRID_DAYS + " days");
+        }
+        if (slotMinutes < 5 || slotMinutes > 60 || (24 * 60) % slotMinutes != 0) {
+            throw new BadRequestException("Slot length must divide a day and be between 5 and 60 minutes");
+        }
+        List<TableDTO> tables = availabilityIndex.bookableTables(cafeId);
+        return new BookingGridDTO(cafeId, from, to, slotMinutes, tables,
+                availabilityIndex.busySlots(cafeId, tables, from, to, slotMinutes));
+    }
+
+    // Bookings from the day before can run past midnight into the requested period
+    private boolean overlapsExistingBooking(Long tableId, LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        List<BookingSlotDTO> slots = bookingRepository.findSlotsByTableIdAndDateBetween(tableId,
+                start.toLocalDate().minusDays(1), end.toLocalDate(), TableAvailabilityIndex.BLOCKING_STATUSES);
+        for (BookingSlotDTO slot : slots) {
+            LocalDateTime slotStart = LocalDateTime.of(slot.getBookingDate(), slot.getBookingTime());
+            LocalDateTime slotEnd = slotStart.plusMinutes(availabilityIndex.durationOf(slot.getDurationMinutes()));
+            if (slotStart.isBefore(end) && slotEnd.isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private BookingDTO convertToDTO(TableBooking booking) {
-        return BookingDTO.builder()
-                .id(booking.getId())
-                .customerId(booking.getCustomer().getId())
-                .customerName(booking.getCustomer().getProfile() != null ?
-                        booking.getCustomer().getProfile().getFirstName() + " " +
-                                booking.getCustomer().getProfile().getLastName() :
-                        booking.getCustomer().getUsername())
-                .cafeId(booking.getCafe().getId())
-                .cafeName(booking.getCafe().getName())
-                .tableId(booking.getTable().getId())
-                .tableNumber(booking.getTable().getTableNumber())
-                .bookingDateTime(LocalDateTime.of(booking.getBookingDate(), booking.getBookingTime()))
-                .numberOfGuests(booking.getNumberOfGuests())
-                .status(booking.getStatus().name())
-                .specialRequests(booking.getSpecialRequests())
-                .createdAt(booking.getCreatedAt())
-                .build();
+    private BookingDTO withDuration(BookingDTO booking) {
+        booking.setDurationMinutes(availabilityIndex.durationOf(booking.getDurationMinutes()));
+        return booking;
     }
 }
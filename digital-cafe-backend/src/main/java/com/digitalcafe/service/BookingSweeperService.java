@@ -0,0 +1,198 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.BookingSweepDTO;
+import com.digitalcafe.dto.BookingSweeperStatsDTO;
+import com.digitalcafe.event.BookingChangedEvent;
+import com.digitalcafe.model.TableBooking;
+import com.digitalcafe.repository.CafeTableRepository;
+import com.digitalcafe.repository.TableBookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves bookings that are past due out of PENDING and CONFIRMED, so they stop blocking their
+ * tables and conflict queries.
+ *
+ * A pending booking still unconfirmed some minutes after its start is marked NO_SHOW; a confirmed
+ * booking is marked COMPLETED some minutes after its end. Started bookings are scanned in start
+ * order with keyset paging, and each chunk is moved in one short transaction of conditional
+ * updates that skip rows changed concurrently. Reserved or occupied tables of swept bookings are
+ * released once nothing else holds them.
+ */
+@Service
+@Slf4j
+public class BookingSweeperService {
+
+    private final TableBookingRepository bookingRepository;
+    private final CafeTableRepository tableRepository;
+    private final TableAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final int noShowAfterMinutes;
+    private final int completeAfterMinutes;
+    private final int batchSize;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalNoShows = new AtomicLong();
+    private final AtomicLong totalCompleted = new AtomicLong();
+    private final AtomicLong totalTablesReleased = new AtomicLong();
+    private volatile BookingSweeperStatsDTO lastRun = BookingSweeperStatsDTO.builder().build();
+
+    public BookingSweeperService(TableBookingRepository bookingRepository,
+                                 CafeTableRepository tableRepository,
+                                 TableAvailabilityIndex availabilityIndex,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.bookings.no-show-after-minutes:30}") int noShowAfterMinutes,
+                                 @Value("${app.bookings.complete-after-minutes:15}") int completeAfterMinutes,
+                                 @Value("${app.bookings.sweep-batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.tableRepository = tableRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.noShowAfterMinutes = Math.max(0, noShowAfterMinutes);
+        this.completeAfterMinutes = Math.max(0, completeAfterMinutes);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${app.bookings.sweep-interval-ms:60000}",
+               fixedDelayString = "${app.bookings.sweep-interval-ms:60000}")
+    public void sweep() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        // Nothing that started after this can be due yet
+        LocalDateTime startedBy = now.minusMinutes(Math.min(noShowAfterMinutes, completeAfterMinutes));
+        Run run = new Run(now);
+
+        BookingSweepDTO last = null;
+        List<BookingSweepDTO> page;
+        do {
+            page = bookingRepository.findStartedBookings(startedBy.toLocalDate(), startedBy.toLocalTime(),
+                    last != null ? last.getBookingDate() : LocalDate.EPOCH,
+                    last != null ? last.getBookingTime() : LocalTime.MIDNIGHT,
+                    last != null ? last.getId() : 0L,
+                    PageRequest.of(0, batchSize));
+            if (!page.isEmpty()) {
+                List<BookingSweepDTO> chunk = page;
+                chunkTransaction.executeWithoutResult(status -> sweepChunk(chunk, run));
+                last = page.get(page.size() - 1);
+            }
+        } while (page.size() == batchSize);
+
+        if (!run.tableIds.isEmpty()) {
+            int released = chunkTransaction.execute(status -> tableRepository.releaseIfIdle(run.tableIds,
+                    now.toLocalDate(), now.toLocalTime(), now));
+            run.tablesReleased = released;
+            if (released > 0) {
+                run.cafeIds.forEach(availabilityIndex::forgetTables);
+            }
+        }
+        record(run, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public BookingSweeperStatsDTO getStats() {
+        BookingSweeperStatsDTO stats = lastRun;
+        return stats.toBuilder()
+                .totalNoShows(totalNoShows.get())
+                .totalCompleted(totalCompleted.get())
+                .totalTablesReleased(totalTablesReleased.get())
+                .runs(runs.get())
+                .build();
+    }
+
+    private void sweepChunk(List<BookingSweepDTO> chunk, Run run) {
+        List<BookingSweepDTO> noShows = new ArrayList<>();
+        List<BookingSweepDTO> completed = new ArrayList<>();
+        for (BookingSweepDTO booking : chunk) {
+            LocalDateTime start = LocalDateTime.of(booking.getBookingDate(), booking.getBookingTime());
+            LocalDateTime dueAt = booking.getStatus() == TableBooking.BookingStatus.PENDING
+                    ? start.plusMinutes(noShowAfterMinutes)
+                    : start.plusMinutes(availabilityIndex.durationOf(booking.getDurationMinutes()) + completeAfterMinutes);
+            if (dueAt.isAfter(run.now)) {
+                continue;
+            }
+            (booking.getStatus() == TableBooking.BookingStatus.PENDING ? noShows : completed).add(booking);
+            run.oldestDueAt = run.oldestDueAt == null || dueAt.isBefore(run.oldestDueAt) ? dueAt : run.oldestDueAt;
+        }
+        run.noShows += move(noShows, TableBooking.BookingStatus.PENDING, TableBooking.BookingStatus.NO_SHOW, run);
+        run.completed += move(completed, TableBooking.BookingStatus.CONFIRMED, TableBooking.BookingStatus.COMPLETED, run);
+    }
+
+    // One set-based update per chunk; the rows are re-read only when some of them changed meanwhile
+    private int move(List<BookingSweepDTO> bookings, TableBooking.BookingStatus from,
+                     TableBooking.BookingStatus to, Run run) {
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = bookings.stream().map(BookingSweepDTO::getId).toList();
+        List<BookingSweepDTO> moved = bookings;
+        if (bookingRepository.updateStatusIfUnchanged(ids, from, to, run.now) != ids.size()) {
+            Set<Long> nowInTarget = new HashSet<>();
+            for (TableBooking booking : bookingRepository.findAllById(ids)) {
+                if (booking.getStatus() == to) {
+                    nowInTarget.add(booking.getId());
+                }
+            }
+            moved = bookings.stream().filter(booking -> nowInTarget.contains(booking.getId())).toList();
+        }
+        for (BookingSweepDTO booking : moved) {
+            run.tableIds.add(booking.getTableId());
+            run.cafeIds.add(booking.getCafeId());
+            eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getCafeId(),
+                    booking.getTableId(), booking.getBookingDate(), booking.getBookingTime(),
+                    booking.getDurationMinutes(), to));
+        }
+        return moved.size();
+    }
+
+    private void record(Run run, long millis) {
+        runs.incrementAndGet();
+        totalNoShows.addAndGet(run.noShows);
+        totalCompleted.addAndGet(run.completed);
+        totalTablesReleased.addAndGet(run.tablesReleased);
+        long lagSeconds = run.oldestDueAt != null ? Duration.between(run.oldestDueAt, run.now).toSeconds() : 0L;
+        lastRun = BookingSweeperStatsDTO.builder()
+                .lastRunAt(run.now)
+                .lastRunMillis(millis)
+                .lastRunNoShows((long) run.noShows)
+                .lastRunCompleted((long) run.completed)
+                .lastRunTablesReleased((long) run.tablesReleased)
+                .lastRunMaxLagSeconds(lagSeconds)
+                .build();
+        if (run.noShows + run.completed > 0) {
+            log.info("Swept bookings: {} no-shows, {} completed, {} tables released in {} ms (max lag {} s)",
+                    run.noShows, run.completed, run.tablesReleased, millis, lagSeconds);
+        }
+    }
+
+    private static final class Run {
+        private final LocalDateTime now;
+        private final Set<Long> tableIds = new HashSet<>();
+        private final Set<Long> cafeIds = new HashSet<>();
+        private LocalDateTime oldestDueAt;
+        private int noShows;
+        private int completed;
+        private int tablesReleased;
+
+        private Run(LocalDateTime now) {
+            this.now = now;
+        }
+    }
+}
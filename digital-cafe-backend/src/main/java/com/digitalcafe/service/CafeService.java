@@ -1,12 +1,15 @@
 package com.digitalcafe.service;
 
 import com.digitalcafe.dto.CreateCafeRequest;
+import com.digitalcafe.event.MenuChangedEvent;
 import com.digitalcafe.exception.ResourceNotFoundException;
 import com.digitalcafe.model.Cafe;
 import com.digitalcafe.model.User;
 import com.digitalcafe.repository.CafeRepository;
 import com.digitalcafe.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +21,23 @@ public class CafeService {
     
     private final CafeRepository cafeRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MenuCatalogCache menuCatalogCache;
+    
+    // Changes whenever any cafe is created, updated or deleted; known without a query
+    public String getCafeListETag() {
+        return menuCatalogCache.getCafeListETag();
+    }
+    
+    /**
+     * Rejects a staff member acting on a cafe they do not work at.
+     */
+    @Transactional(readOnly = true)
+    public void checkStaffAccess(Long cafeId, String username) {
+        if (!cafeRepository.isStaffOf(cafeId, username)) {
+            throw new AccessDeniedException("You do not work at cafe " + cafeId);
+        }
+    }
     
     @Transactional(readOnly = true)
     public List<Cafe> getAllCafes() {
@@ -60,7 +80,9 @@ public class CafeService {
         cafe.setOwner(owner);
         cafe.setActive(request.getActive() != null ? request.getActive() : true);
         
-        return cafeRepository.save(cafe);
+        Cafe savedCafe = cafeRepository.save(cafe);
+        eventPublisher.publishEvent(MenuChangedEvent.cafeDetails(savedCafe.getId()));
+        return savedCafe;
     }
     
     @Transactional
@@ -77,7 +99,10 @@ public class CafeService {
         cafe.setClosingTime(cafeDetails.getClosingTime());
         cafe.setActive(cafeDetails.getActive());
         
-        return cafeRepository.save(cafe);
+        // Cafe listings and every cached menu item of this cafe show these details
+        Cafe savedCafe = cafeRepository.save(cafe);
+        eventPublisher.publishEvent(MenuChangedEvent.cafeDetails(id));
+        return savedCafe;
     }
     
     @Transactional
@@ -85,5 +110,6 @@ public class CafeService {
         Cafe cafe = cafeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cafe", "id", id));
         cafeRepository.delete(cafe);
+        eventPublisher.publishEvent(MenuChangedEvent.cafeDetails(id));
     }
 }
@@ -1,9 +1,11 @@
 package com.digitalcafe.service;
 
+import com.digitalcafe.event.MenuChangedEvent;
 import com.digitalcafe.exception.ResourceNotFoundException;
 import com.digitalcafe.model.Category;
 import com.digitalcafe.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.util.List;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
@@ -46,7 +49,10 @@ public class CategoryService {
         category.setDescription(categoryDetails.getDescription());
         category.setActive(categoryDetails.getActive());
         
-        return categoryRepository.save(category);
+        // Category names are copied into every cached menu that uses them
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(MenuChangedEvent.allCafes());
+        return savedCategory;
     }
     
     @Transactional
@@ -54,5 +60,6 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(MenuChangedEvent.allCafes());
     }
 }
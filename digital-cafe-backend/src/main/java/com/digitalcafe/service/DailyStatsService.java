@@ -0,0 +1,245 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.CafeDailyStatsDelta;
+import com.digitalcafe.dto.DailyOrderTotalsDTO;
+import com.digitalcafe.dto.ItemTotalsDTO;
+import com.digitalcafe.dto.PopularItemDTO;
+import com.digitalcafe.dto.StatusTotalsDTO;
+import com.digitalcafe.event.OrderStatusChangedEvent;
+import com.digitalcafe.event.PaymentStatusChangedEvent;
+import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.model.CafeDailyItemStats;
+import com.digitalcafe.model.CafeDailyStats;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.Payment;
+import com.digitalcafe.repository.CafeDailyItemStatsRepository;
+import com.digitalcafe.repository.CafeDailyStatsRepository;
+import com.digitalcafe.repository.OrderItemRepository;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the cafe_daily_stats and cafe_daily_item_stats rollups.
+ *
+ * Order and payment events are folded in as single-statement upserts just before the
+ * originating transaction commits, on its own connection. The increment commits or rolls back
+ * with the change it counts, so none is lost to a crash, and the hot per-day row is locked only
+ * for the commit itself. A nightly job rebuilds recent days from the source tables, and an empty
+ * rollup is backfilled from them on startup.
+ *
+ * A rebuild first takes the cafe-day row lock with the same upsert the increments use, then reads
+ * the source tables at READ COMMITTED. An increment either committed before the lock was granted,
+ * and its change is part of what the rebuild reads, or waits for the rebuild to commit and lands
+ * on top of it; neither is counted twice. Concurrent rebuilds of one cafe-day, such as the
+ * nightly job running on several nodes, queue on the same lock.
+ */
+@Service
+@Slf4j
+public class DailyStatsService {
+
+    private final CafeDailyStatsRepository statsRepository;
+    private final CafeDailyItemStatsRepository itemStatsRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final TransactionTemplate rollupTransaction;
+    private final int reconcileDays;
+
+    public DailyStatsService(CafeDailyStatsRepository statsRepository,
+                             CafeDailyItemStatsRepository itemStatsRepository,
+                             OrderRepository orderRepository,
+                             OrderItemRepository orderItemRepository,
+                             PaymentRepository paymentRepository,
+                             OrderArchiveService orderArchiveService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.stats.reconcile-days:2}") int reconcileDays) {
+        this.statsRepository = statsRepository;
+        this.itemStatsRepository = itemStatsRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.rollupTransaction = new TransactionTemplate(transactionManager);
+        this.rollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rollupTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.reconcileDays = Math.max(1, reconcileDays);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.orderCreatedAt() == null) {
+            return;
+        }
+        LocalDate day = event.orderCreatedAt().toLocalDate();
+        BigDecimal total = event.totalAmount() != null ? event.totalAmount() : BigDecimal.ZERO;
+
+        CafeDailyStatsDelta delta = new CafeDailyStatsDelta(event.cafeId(), day);
+        if (event.previousStatus() == null) {
+            delta.setOrders(1);
+            delta.setRevenue(total);
+        } else if (event.status() == null) {
+            delta.setOrders(-1);
+            delta.setRevenue(total.negate());
+        }
+        delta.addStatus(event.previousStatus(), -1);
+        delta.addStatus(event.status(), 1);
+
+        int sign = OrderStatusChangedEvent.countsAsSold(event.status()) ? 1 : -1;
+        statsRepository.applyDelta(delta);
+        if (OrderStatusChangedEvent.affectsSoldItems(event.previousStatus(), event.status())) {
+            for (OrderStatusChangedEvent.ItemLine line : event.items()) {
+                itemStatsRepository.addQuantity(event.cafeId(), day, line.menuItemId(),
+                        (long) sign * line.quantity(), line.subtotal().multiply(BigDecimal.valueOf(sign)));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (event.orderCreatedAt() == null) {
+            return;
+        }
+        CafeDailyStatsDelta delta = new CafeDailyStatsDelta(event.cafeId(), event.orderCreatedAt().toLocalDate());
+        if (event.status() == Payment.PaymentStatus.SUCCESS) {
+            delta.setPaidRevenue(event.amount());
+        } else if (event.status() == Payment.PaymentStatus.REFUNDED) {
+            delta.setRefundedRevenue(event.amount());
+        } else {
+            return;
+        }
+        statsRepository.applyDelta(delta);
+    }
+
+    public List<DailyOrderTotalsDTO> getDailyTotals(Long cafeId, LocalDate from, LocalDate to) {
+        return statsRepository.findDailyTotals(cafeId, from, to);
+    }
+
+    public List<PopularItemDTO> getTopItems(Long cafeId, LocalDate from, LocalDate to, int limit) {
+        return itemStatsRepository.findTopItems(cafeId, from, to, PageRequest.of(0, limit));
+    }
+
+    public Optional<CafeDailyStats> getDayStats(Long cafeId, LocalDate day) {
+        return statsRepository.findByCafeIdAndStatDate(cafeId, day);
+    }
+
+    // One-time backfill for a deployment whose rollup has never been populated
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (statsRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime earliest = orderRepository.findEarliestCreatedAt();
+        if (earliest == null) {
+            return;
+        }
+        LocalDate firstLiveDay = orderArchiveService.getCutoff().toLocalDate();
+        LocalDate from = earliest.toLocalDate().isBefore(firstLiveDay) ? firstLiveDay : earliest.toLocalDate();
+        int rebuilt = rebuild(null, from, LocalDate.now());
+        log.info("Backfilled daily stats from {}: {} cafe-days rebuilt", from, rebuilt);
+    }
+
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 15 3 * * *}")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        int rebuilt = rebuild(null, today.minusDays(reconcileDays - 1L), today);
+        log.info("Reconciled daily stats: {} cafe-days rebuilt", rebuilt);
+    }
+
+    /**
+     * Recomputes the rollup rows for every day in [from, to] from the order, order item and
+     * payment tables, one cafe-day per transaction. Returns the number of cafe-days rebuilt.
+     */
+    public int rebuild(Long cafeId, LocalDate from, LocalDate to) {
+        // Archived orders are no longer in the source tables; rebuilding their days would drop them
+        LocalDate firstLiveDay = orderArchiveService.getCutoff().toLocalDate();
+        if (from.isBefore(firstLiveDay)) {
+            throw new BadRequestException("Days before " + firstLiveDay + " may contain archived orders and cannot be rebuilt");
+        }
+        int rebuilt = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Set<Long> cafeIds = new TreeSet<>();
+            if (cafeId != null) {
+                cafeIds.add(cafeId);
+            } else {
+                cafeIds.addAll(orderRepository.findCafeIdsWithOrdersBetween(day.atStartOfDay(),
+                        day.plusDays(1).atStartOfDay()));
+                cafeIds.addAll(statsRepository.findCafeIdsWithStatsBetween(day, day));
+            }
+            for (Long id : cafeIds) {
+                LocalDate statDate = day;
+                rollupTransaction.executeWithoutResult(status -> rebuildDay(id, statDate));
+                rebuilt++;
+            }
+        }
+        return rebuilt;
+    }
+
+    private void rebuildDay(Long cafeId, LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+
+        // Row lock first, so in-flight increments are either already committed or wait for us
+        statsRepository.applyDelta(new CafeDailyStatsDelta(cafeId, day));
+        statsRepository.deleteDay(cafeId, day);
+        itemStatsRepository.deleteDay(cafeId, day);
+
+        List<StatusTotalsDTO> orderTotals = orderRepository.sumTotalsByStatus(cafeId, start, end);
+        List<StatusTotalsDTO> paymentTotals = paymentRepository.sumSettledByStatus(cafeId, start, end);
+        if (orderTotals.isEmpty() && paymentTotals.isEmpty()) {
+            return;
+        }
+
+        CafeDailyStats stats = new CafeDailyStats();
+        stats.setCafeId(cafeId);
+        stats.setStatDate(day);
+        for (StatusTotalsDTO totals : orderTotals) {
+            long count = totals.getCount();
+            stats.setOrderCount(stats.getOrderCount() + count);
+            stats.setRevenue(stats.getRevenue().add(totals.getAmount()));
+            switch (Order.OrderStatus.valueOf(totals.getStatus())) {
+                case PLACED -> stats.setPlacedCount(count);
+                case CONFIRMED -> stats.setConfirmedCount(count);
+                case PREPARING -> stats.setPreparingCount(count);
+                case READY -> stats.setReadyCount(count);
+                case SERVED -> stats.setServedCount(count);
+                case COMPLETED -> stats.setCompletedCount(count);
+                case CANCELLED -> stats.setCancelledCount(count);
+            }
+        }
+        for (StatusTotalsDTO totals : paymentTotals) {
+            // A refunded payment was collected first, so it counts towards paid revenue as well
+            stats.setPaidRevenue(stats.getPaidRevenue().add(totals.getAmount()));
+            if (Payment.PaymentStatus.REFUNDED.name().equals(totals.getStatus())) {
+                stats.setRefundedRevenue(totals.getAmount());
+            }
+        }
+        statsRepository.save(stats);
+
+        List<CafeDailyItemStats> itemStats = orderItemRepository.sumSoldItems(cafeId, start, end).stream()
+                .map(totals -> new CafeDailyItemStats(null, cafeId, day, totals.getMenuItemId(),
+                        totals.getQuantity(), totals.getRevenue(), null))
+                .toList();
+        itemStatsRepository.saveAll(itemStats);
+    }
+}
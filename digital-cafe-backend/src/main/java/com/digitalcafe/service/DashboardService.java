@@ -1,15 +1,21 @@
 package com.digitalcafe.service;
 
 import com.digitalcafe.dto.*;
+import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.model.CafeDailyStats;
 import com.digitalcafe.model.Order;
 import com.digitalcafe.model.User;
 import com.digitalcafe.repository.*;
+import com.digitalcafe.util.TtlCache;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,9 +29,6 @@ public class DashboardService {
     @Autowired
     private CafeRepository cafeRepository;
 
-    @Autowired
-    private OrderRepository orderRepository;
-
     @Autowired
     private TableBookingRepository bookingRepository;
 
@@ -35,51 +38,96 @@ public class DashboardService {
     @Autowired
     private CafeTableRepository cafeTableRepository;
 
-    public AdminDashboardDTO getAdminDashboard() {
-        AdminDashboardDTO dashboard = new AdminDashboardDTO();
+    @Autowired
+    private DailyStatsService dailyStatsService;
 
-        // Total users
-        dashboard.setTotalUsers(userRepository.count());
+    @Autowired
+    private PreparationTimeTracker preparationTimeTracker;
 
-        // Active/Inactive users
-        dashboard.setActiveUsers(userRepository.countByActive(true));
-        dashboard.setInactiveUsers(userRepository.countByActive(false));
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
 
-        // Unverified emails
-        dashboard.setUnverifiedEmails(userRepository.countByEmailVerified(false));
+    @Value("${app.dashboard.admin-cache-ttl-seconds:30}")
+    private long adminCacheTtlSeconds;
 
-        // Incomplete profiles
-        dashboard.setIncompleteProfiles(userRepository.countByProfileCompleted(false));
+    private TtlCache<AdminDashboardDTO> adminDashboardCache;
 
-        // Total cafes
-        dashboard.setTotalCafes(cafeRepository.count());
+    private static final Set<Order.OrderStatus> CHEF_PENDING_STATUSES =
+            EnumSet.of(Order.OrderStatus.PLACED, Order.OrderStatus.CONFIRMED);
+    private static final Set<Order.OrderStatus> CHEF_QUEUE_STATUSES =
+            EnumSet.of(Order.OrderStatus.PLACED, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING);
+    private static final int DEFAULT_POPULAR_ITEMS = 5;
+    private static final int MAX_POPULAR_ITEMS = 50;
 
-        // Today's registrations
-        LocalDateTime today = LocalDate.now().atStartOfDay();
-        dashboard.setTodayRegistrations(userRepository.countByCreatedAtAfter(today));
+    /**
+     * Time windows for the popular items ranking, ending today.
+     */
+    public enum PopularItemsWindow {
+        TODAY(1), WEEK(7), MONTH(30);
 
-        // Weekly growth (last 7 days)
-        List<Integer> weeklyGrowth = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDateTime startOfDay = LocalDate.now().minusDays(i).atStartOfDay();
-            LocalDateTime endOfDay = startOfDay.plusDays(1);
-            Long count = userRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-            weeklyGrowth.add(count.intValue());
+        private final int days;
+
+        PopularItemsWindow(int days) {
+            this.days = days;
         }
-        dashboard.setWeeklyGrowth(weeklyGrowth);
+    }
+
+    @PostConstruct
+    void initCaches() {
+        // Platform-wide counters tolerate a few seconds of staleness; concurrent admins share one computation
+        adminDashboardCache = new TtlCache<>(Duration.ofSeconds(adminCacheTtlSeconds), this::computeAdminDashboard);
+    }
+
+    public AdminDashboardDTO getAdminDashboard() {
+        return adminDashboardCache.get();
+    }
 
-        // Users by role
+    private AdminDashboardDTO computeAdminDashboard() {
+        AdminDashboardDTO dashboard = new AdminDashboardDTO();
+        LocalDate today = LocalDate.now();
+
+        // User counters and users by role, from one conditional-aggregate query
+        List<UserRoleStatsDTO> roleStats = userRepository.summarizeByRole(today.atStartOfDay());
         Map<String, Long> usersByRole = new HashMap<>();
         for (User.Role role : User.Role.values()) {
-            usersByRole.put(role.toString(), userRepository.countByRole(role));
+            usersByRole.put(role.toString(), 0L);
         }
+        long totalUsers = 0;
+        long activeUsers = 0;
+        long unverifiedEmails = 0;
+        long incompleteProfiles = 0;
+        long todayRegistrations = 0;
+        for (UserRoleStatsDTO stats : roleStats) {
+            usersByRole.put(stats.getRole(), stats.getTotal());
+            totalUsers += stats.getTotal();
+            activeUsers += stats.getActive();
+            unverifiedEmails += stats.getUnverifiedEmails();
+            incompleteProfiles += stats.getIncompleteProfiles();
+            todayRegistrations += stats.getRegisteredSince();
+        }
+        dashboard.setTotalUsers(totalUsers);
+        dashboard.setActiveUsers(activeUsers);
+        dashboard.setInactiveUsers(totalUsers - activeUsers);
+        dashboard.setUnverifiedEmails(unverifiedEmails);
+        dashboard.setIncompleteProfiles(incompleteProfiles);
+        dashboard.setTodayRegistrations(todayRegistrations);
         dashboard.setUsersByRole(usersByRole);
 
+        // Total cafes
+        dashboard.setTotalCafes(cafeRepository.count());
+
+        // Weekly growth (last 7 days), from one grouped query
+        Map<LocalDate, Long> registrations = userRepository
+                .countRegistrationsPerDay(today.minusDays(6).atStartOfDay()).stream()
+                .collect(Collectors.toMap(DailyCountDTO::getDate, DailyCountDTO::getCount));
+        List<Integer> weeklyGrowth = new ArrayList<>();
+        for (int i = 6; i >= 0; i--) {
+            weeklyGrowth.add(registrations.getOrDefault(today.minusDays(i), 0L).intValue());
+        }
+        dashboard.setWeeklyGrowth(weeklyGrowth);
+
         // Recent users (last 10)
-        List<User> recentUsers = userRepository.findTop10ByOrderByCreatedAtDesc();
-        dashboard.setRecentUsers(recentUsers.stream()
-                .map(this::convertToRecentUserDTO)
-                .collect(Collectors.toList()));
+        dashboard.setRecentUsers(userRepository.findRecentUsers(PageRequest.of(0, 10)));
 
         return dashboard;
     }
@@ -105,23 +153,23 @@ public class DashboardService {
         LocalDate today = LocalDate.now();
         dashboard.setTodayBookings(bookingRepository.countByCafeIdAndBookingDate(cafeId, today));
 
-        // Today's orders
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        dashboard.setTodayOrders(orderRepository.countByCafeIdAndCreatedAtBetween(cafeId, startOfDay, endOfDay));
+        // Daily revenue and order counts for the month and the chart window, from the daily rollup
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        LocalDate chartStart = today.minusDays(6);
+        LocalDate rangeStart = startOfMonth.isBefore(chartStart) ? startOfMonth : chartStart;
+        Map<LocalDate, DailyOrderTotalsDTO> dailyTotals = dailyStatsService.getDailyTotals(
+                        cafeId, rangeStart, today).stream()
+                .collect(Collectors.toMap(DailyOrderTotalsDTO::getDate, totals -> totals));
 
-        // Today's revenue
-        List<Order> todayOrders = orderRepository.findByCafeIdAndCreatedAtBetween(cafeId, startOfDay, endOfDay);
-        BigDecimal todayRevenue = todayOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        dashboard.setTodayRevenue(todayRevenue);
+        // Today's orders and revenue
+        DailyOrderTotalsDTO todayTotals = dailyTotals.get(today);
+        dashboard.setTodayOrders(todayTotals != null ? todayTotals.getOrderCount() : 0L);
+        dashboard.setTodayRevenue(todayTotals != null ? todayTotals.getRevenue() : BigDecimal.ZERO);
 
         // Monthly revenue
-        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        List<Order> monthlyOrders = orderRepository.findByCafeIdAndCreatedAtAfter(cafeId, startOfMonth);
-        BigDecimal monthlyRevenue = monthlyOrders.stream()
-                .map(Order::getTotalAmount)
+        BigDecimal monthlyRevenue = dailyTotals.values().stream()
+                .filter(totals -> !totals.getDate().isBefore(startOfMonth))
+                .map(DailyOrderTotalsDTO::getRevenue)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         dashboard.setMonthlyRevenue(monthlyRevenue);
 
@@ -129,11 +177,11 @@ public class DashboardService {
         dashboard.setTotalChefs(userRepository.countByRoleAndCreatedBy(User.Role.CHEF, owner));
         dashboard.setTotalWaiters(userRepository.countByRoleAndCreatedBy(User.Role.WAITER, owner));
 
-        // Popular items (top 5)
-        dashboard.setPopularItems(getPopularItems(cafeId));
+        // Popular items (top 5 over the last 30 days)
+        dashboard.setPopularItems(getPopularItems(cafeId, PopularItemsWindow.MONTH, DEFAULT_POPULAR_ITEMS));
 
         // Revenue chart data (last 7 days)
-        dashboard.setRevenueChart(getRevenueChartData(cafeId));
+        dashboard.setRevenueChart(getRevenueChartData(dailyTotals));
 
         return dashboard;
     }
@@ -142,27 +190,20 @@ public class DashboardService {
         ChefDashboardDTO dashboard = new ChefDashboardDTO();
 
         // Pending orders (PLACED, CONFIRMED)
-        dashboard.setPendingOrders(orderRepository.countByCafeIdAndStatusIn(cafeId, 
-                Arrays.asList(Order.OrderStatus.PLACED, Order.OrderStatus.CONFIRMED)));
+        dashboard.setPendingOrders(kitchenQueueService.count(cafeId, CHEF_PENDING_STATUSES));
 
         // Preparing orders
-        dashboard.setPreparingOrders(orderRepository.countByCafeIdAndStatus(cafeId, Order.OrderStatus.PREPARING));
+        dashboard.setPreparingOrders(kitchenQueueService.count(cafeId, EnumSet.of(Order.OrderStatus.PREPARING)));
 
         // Completed today
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        dashboard.setCompletedTodayOrders(orderRepository.countByCafeIdAndStatusAndCreatedAtBetween(
-                cafeId, Order.OrderStatus.READY, startOfDay, endOfDay));
+        dashboard.setCompletedTodayOrders(dailyStatsService.getDayStats(cafeId, LocalDate.now())
+                .map(CafeDailyStats::getReadyCount).orElse(0L));
 
-        // Average preparation time (placeholder - would need tracking)
-        dashboard.setAveragePreparationTime(15.0);
+        // Average preparation time in minutes over the tracker's rolling window
+        dashboard.setAveragePreparationTime(preparationTimeTracker.getCafeStats(cafeId).getMeanMinutes());
 
         // Order queue
-        List<Order> queueOrders = orderRepository.findByCafeIdAndStatusInOrderByCreatedAtAsc(cafeId,
-                Arrays.asList(Order.OrderStatus.PLACED, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING));
-        dashboard.setOrderQueue(queueOrders.stream()
-                .map(this::convertToOrderSummaryDTO)
-                .collect(Collectors.toList()));
+        dashboard.setOrderQueue(kitchenQueueService.getQueue(cafeId, CHEF_QUEUE_STATUSES));
 
         return dashboard;
     }
@@ -171,7 +212,7 @@ public class DashboardService {
         WaiterDashboardDTO dashboard = new WaiterDashboardDTO();
 
         // Ready orders
-        dashboard.setReadyOrders(orderRepository.countByCafeIdAndStatus(cafeId, Order.OrderStatus.READY));
+        dashboard.setReadyOrders(kitchenQueueService.count(cafeId, EnumSet.of(Order.OrderStatus.READY)));
 
         // Active bookings (today's confirmed bookings)
         LocalDate today = LocalDate.now();
@@ -179,69 +220,54 @@ public class DashboardService {
                 cafeId, today, com.digitalcafe.model.TableBooking.BookingStatus.CONFIRMED));
 
         // Served today
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        dashboard.setServedTodayOrders(orderRepository.countByCafeIdAndStatusAndCreatedAtBetween(
-                cafeId, Order.OrderStatus.SERVED, startOfDay, endOfDay));
+        dashboard.setServedTodayOrders(dailyStatsService.getDayStats(cafeId, today)
+                .map(CafeDailyStats::getServedCount).orElse(0L));
 
         // Service queue
-        List<Order> serviceOrders = orderRepository.findByCafeIdAndStatusOrderByCreatedAtAsc(
-                cafeId, Order.OrderStatus.READY);
-        dashboard.setServiceQueue(serviceOrders.stream()
-                .map(this::convertToOrderSummaryDTO)
-                .collect(Collectors.toList()));
+        dashboard.setServiceQueue(kitchenQueueService.getQueue(cafeId, EnumSet.of(Order.OrderStatus.READY)));
 
         return dashboard;
     }
 
-    private List<PopularItemDTO> getPopularItems(Long cafeId) {
-        // This would require a more complex query in a real application
-        // For now, returning empty list
-        return new ArrayList<>();
+    public PreparationStatsDTO getPreparationStats(Long cafeId) {
+        return preparationTimeTracker.getStats(cafeId);
+    }
+
+    public List<PopularItemDTO> getOwnerPopularItems(Long userId, String window, Integer limit) {
+        User owner = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long cafeId = cafeRepository.findByOwner(owner).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("Cafe not found"))
+                .getId();
+
+        PopularItemsWindow popularWindow;
+        try {
+            popularWindow = PopularItemsWindow.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid window: " + window + " (expected TODAY, WEEK or MONTH)");
+        }
+        int size = limit == null ? DEFAULT_POPULAR_ITEMS : Math.max(1, Math.min(limit, MAX_POPULAR_ITEMS));
+        return getPopularItems(cafeId, popularWindow, size);
+    }
+
+    // Ranked from the per-item daily rollup, so the cost depends on days x items rather than order volume
+    private List<PopularItemDTO> getPopularItems(Long cafeId, PopularItemsWindow window, int limit) {
+        LocalDate today = LocalDate.now();
+        return dailyStatsService.getTopItems(cafeId, today.minusDays(window.days - 1L), today, limit);
     }
 
-    private List<RevenueDataDTO> getRevenueChartData(Long cafeId) {
+    private List<RevenueDataDTO> getRevenueChartData(Map<LocalDate, DailyOrderTotalsDTO> dailyTotals) {
         List<RevenueDataDTO> revenueData = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
 
         for (int i = 6; i >= 0; i--) {
             LocalDate date = LocalDate.now().minusDays(i);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = startOfDay.plusDays(1);
-
-            List<Order> dayOrders = orderRepository.findByCafeIdAndCreatedAtBetween(cafeId, startOfDay, endOfDay);
-            BigDecimal dayRevenue = dayOrders.stream()
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            DailyOrderTotalsDTO dayTotals = dailyTotals.get(date);
+            BigDecimal dayRevenue = dayTotals != null ? dayTotals.getRevenue() : BigDecimal.ZERO;
 
             revenueData.add(new RevenueDataDTO(date.format(formatter), dayRevenue));
         }
 
         return revenueData;
     }
-
-    private RecentUserDTO convertToRecentUserDTO(User user) {
-        RecentUserDTO dto = new RecentUserDTO();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setEmail(user.getEmail());
-        dto.setRole(user.getRole().toString());
-        dto.setEmailVerified(user.getEmailVerified());
-        dto.setProfileCompleted(user.getProfileCompleted());
-        dto.setCreatedAt(user.getCreatedAt().toString());
-        return dto;
-    }
-
-    private OrderSummaryDTO convertToOrderSummaryDTO(Order order) {
-        OrderSummaryDTO dto = new OrderSummaryDTO();
-        dto.setId(order.getId());
-        dto.setOrderNumber(order.getOrderNumber());
-        dto.setCustomerName(order.getCustomer().getUsername());
-        dto.setStatus(order.getStatus().toString());
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setTableNumber(order.getBooking() != null && order.getBooking().getTable() != null 
-                ? order.getBooking().getTable().getTableNumber() : "N/A");
-        dto.setCreatedAt(order.getCreatedAt().toString());
-        return dto;
-    }
 }
@@ -0,0 +1,25 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.event.BookingChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node booking change bus: delivers each change to local subscribers on the publishing thread.
+ */
+public class InProcessBookingChangeBus implements BookingChangeBus {
+
+    private final List<Consumer<BookingChangedEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(BookingChangedEvent change) {
+        listeners.forEach(listener -> listener.accept(change));
+    }
+
+    @Override
+    public void subscribe(Consumer<BookingChangedEvent> listener) {
+        listeners.add(listener);
+    }
+}
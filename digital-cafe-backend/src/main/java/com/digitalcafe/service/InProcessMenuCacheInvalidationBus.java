@@ -0,0 +1,25 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.event.MenuChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node invalidation bus: delivers each invalidation to local subscribers on the publishing thread.
+ */
+public class InProcessMenuCacheInvalidationBus implements MenuCacheInvalidationBus {
+
+    private final List<Consumer<MenuChangedEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(MenuChangedEvent change) {
+        listeners.forEach(listener -> listener.accept(change));
+    }
+
+    @Override
+    public void subscribe(Consumer<MenuChangedEvent> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,82 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.KitchenFeedEventDTO;
+import com.digitalcafe.event.OrderStatusChangedEvent;
+import com.digitalcafe.util.SseFanout;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes order queue changes to kitchen and service screens over Server-Sent Events.
+ *
+ * Screens subscribe per cafe and receive one "order" event per committed transition, so they
+ * can patch their queue instead of polling the dashboards. Each event is serialized once and
+ * queued for every subscriber of the cafe; every connection is written by its own writer, so a
+ * slow screen never holds up other screens or the request thread that committed the change.
+ */
+@Service
+@Slf4j
+public class KitchenFeedService {
+
+    private static final String ORDER_EVENT = "order";
+
+    private final ObjectMapper objectMapper;
+    private final SseFanout fanout;
+
+    public KitchenFeedService(ObjectMapper objectMapper,
+                              @Value("${app.kitchen.feed-timeout-ms:1800000}") long emitterTimeoutMillis,
+                              @Value("${app.kitchen.feed-max-pending-events:64}") int maxPendingEvents) {
+        this.objectMapper = objectMapper;
+        this.fanout = new SseFanout("kitchen-feed", emitterTimeoutMillis, maxPendingEvents);
+    }
+
+    public SseEmitter subscribe(Long cafeId) {
+        // Flushes the response so clients see the stream open immediately
+        return fanout.subscribe(cafeId, SseEmitter.event().comment("subscribed"));
+    }
+
+    public int getSubscriberCount(Long cafeId) {
+        return fanout.getSubscriberCount(cafeId);
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (fanout.getSubscriberCount(event.cafeId()) == 0) {
+            return;
+        }
+        KitchenFeedEventDTO payload = new KitchenFeedEventDTO(event.orderId(), event.orderNumber(),
+                event.previousStatus() != null ? event.previousStatus().name() : null,
+                event.status() != null ? event.status().name() : null,
+                event.totalAmount(), event.orderCreatedAt());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize kitchen feed event for order {}", event.orderId(), e);
+            return;
+        }
+        fanout.broadcast(event.cafeId(), SseEmitter.event()
+                .name(ORDER_EVENT)
+                .id(String.valueOf(event.orderId()))
+                .data(json, MediaType.APPLICATION_JSON));
+    }
+
+    // Keeps idle connections open through proxies and evicts screens that went away
+    @Scheduled(fixedDelayString = "${app.kitchen.feed-heartbeat-ms:20000}")
+    public void sendHeartbeats() {
+        fanout.broadcastToAll(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
+    }
+}
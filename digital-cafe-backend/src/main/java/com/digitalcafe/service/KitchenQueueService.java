@@ -0,0 +1,290 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.ActiveOrderDTO;
+import com.digitalcafe.dto.OrderSummaryDTO;
+import com.digitalcafe.event.OrderStatusChangedEvent;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory queue of active orders (PLACED through SERVED) per cafe, in arrival order.
+ *
+ * Each cafe has its own read/write lock, so transitions in one cafe never contend with reads or
+ * writes in another. The queue is loaded from the database at startup and patched after every
+ * committed order transition. Changes made by other nodes are picked up every few seconds from
+ * the orders updated since the last sync; a periodic full reload also drops deleted orders.
+ * Chef and waiter views read it without touching the database.
+ *
+ * Database reads run outside the cafe lock. Every change to a queue bumps its version, and a
+ * load is applied only if the version it started from is still current, so a slow load never
+ * overwrites a transition patched in meanwhile; the raced cafe is reloaded on its own instead.
+ */
+@Service
+@Slf4j
+public class KitchenQueueService {
+
+    public static final Set<Order.OrderStatus> ACTIVE_STATUSES = EnumSet.of(Order.OrderStatus.PLACED,
+            Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING, Order.OrderStatus.READY,
+            Order.OrderStatus.SERVED);
+
+    // Covers transactions that stamped updated_at before the last sync but committed after it
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(60);
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final OrderRepository orderRepository;
+    private final Map<Long, CafeQueue> queues = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastSyncStartedAt;
+
+    public KitchenQueueService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.kitchen.queue-resync-ms:300000}",
+               fixedDelayString = "${app.kitchen.queue-resync-ms:300000}")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<Long, Long> observed = versions();
+        Map<Long, List<ActiveOrderDTO>> byCafe = orderRepository.findActiveOrders(ACTIVE_STATUSES).stream()
+                .collect(Collectors.groupingBy(ActiveOrderDTO::getCafeId));
+        Set<Long> cafeIds = new HashSet<>(observed.keySet());
+        cafeIds.addAll(byCafe.keySet());
+        for (Long cafeId : cafeIds) {
+            List<ActiveOrderDTO> orders = byCafe.getOrDefault(cafeId, List.of());
+            if (!queueFor(cafeId).replaceAllIfUnchanged(orders, observed.getOrDefault(cafeId, 0L))) {
+                reload(cafeId);
+            }
+        }
+        if (lastSyncStartedAt == null) {
+            lastSyncStartedAt = startedAt;
+        }
+        log.debug("Kitchen queues rebuilt for {} cafes", byCafe.size());
+    }
+
+    // Picks up transitions made on other nodes; orders that left the active statuses are removed
+    @Scheduled(initialDelayString = "${app.kitchen.queue-sync-ms:5000}",
+               fixedDelayString = "${app.kitchen.queue-sync-ms:5000}")
+    public void syncChanges() {
+        LocalDateTime since = lastSyncStartedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<Long, Long> observed = versions();
+        Map<Long, List<ActiveOrderDTO>> byCafe = orderRepository.findOrdersUpdatedSince(since.minus(SYNC_OVERLAP))
+                .stream()
+                .collect(Collectors.groupingBy(ActiveOrderDTO::getCafeId));
+        byCafe.forEach((cafeId, changed) -> {
+            if (!queueFor(cafeId).applyIfUnchanged(changed, observed.getOrDefault(cafeId, 0L))) {
+                reload(cafeId);
+            }
+        });
+        lastSyncStartedAt = startedAt;
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        CafeQueue queue = queueFor(event.cafeId());
+        if (event.status() == null || !ACTIVE_STATUSES.contains(event.status())) {
+            queue.remove(event.orderId());
+            return;
+        }
+        if (queue.updateStatus(event.orderId(), event.status())) {
+            return;
+        }
+        // First sighting (new order, or queued on another node): load its display fields once
+        orderRepository.findActiveOrderById(event.orderId())
+                .filter(order -> ACTIVE_STATUSES.contains(order.getStatus()))
+                .ifPresent(queue::addIfAbsent);
+    }
+
+    public List<OrderSummaryDTO> getQueue(Long cafeId, Set<Order.OrderStatus> statuses) {
+        CafeQueue queue = queues.get(cafeId);
+        return queue != null ? queue.list(statuses) : new ArrayList<>();
+    }
+
+    public long count(Long cafeId, Set<Order.OrderStatus> statuses) {
+        CafeQueue queue = queues.get(cafeId);
+        return queue != null ? queue.count(statuses) : 0L;
+    }
+
+    private CafeQueue queueFor(Long cafeId) {
+        return queues.computeIfAbsent(cafeId, id -> new CafeQueue());
+    }
+
+    private Map<Long, Long> versions() {
+        Map<Long, Long> versions = new HashMap<>();
+        queues.forEach((cafeId, queue) -> versions.put(cafeId, queue.version()));
+        return versions;
+    }
+
+    // Reloads one cafe whose bulk load raced with a transition; a busy cafe is left to the next sync
+    private void reload(Long cafeId) {
+        CafeQueue queue = queueFor(cafeId);
+        for (int attempt = 0; attempt < MAX_RELOAD_ATTEMPTS; attempt++) {
+            long observed = queue.version();
+            if (queue.replaceAllIfUnchanged(orderRepository.findActiveOrdersByCafeId(cafeId, ACTIVE_STATUSES), observed)) {
+                return;
+            }
+        }
+        log.debug("Kitchen queue of cafe {} kept changing during reload", cafeId);
+    }
+
+    private record ArrivalKey(LocalDateTime createdAt, Long id) implements Comparable<ArrivalKey> {
+        private static ArrivalKey of(ActiveOrderDTO order) {
+            return new ArrivalKey(order.getCreatedAt(), order.getId());
+        }
+
+        @Override
+        public int compareTo(ArrivalKey other) {
+            int byTime = createdAt.compareTo(other.createdAt);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+
+    private static final class CafeQueue {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<ArrivalKey, ActiveOrderDTO> ordered = new TreeMap<>();
+        private final Map<Long, ActiveOrderDTO> byId = new HashMap<>();
+        private long version;
+
+        private long version() {
+            lock.readLock().lock();
+            try {
+                return version;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean replaceAllIfUnchanged(List<ActiveOrderDTO> orders, long observedVersion) {
+            lock.writeLock().lock();
+            try {
+                if (version != observedVersion) {
+                    return false;
+                }
+                ordered.clear();
+                byId.clear();
+                orders.forEach(this::put);
+                version++;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean applyIfUnchanged(List<ActiveOrderDTO> changed, long observedVersion) {
+            lock.writeLock().lock();
+            try {
+                if (version != observedVersion) {
+                    return false;
+                }
+                for (ActiveOrderDTO order : changed) {
+                    removeEntry(order.getId());
+                    if (ACTIVE_STATUSES.contains(order.getStatus())) {
+                        put(order);
+                    }
+                }
+                version++;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void addIfAbsent(ActiveOrderDTO order) {
+            lock.writeLock().lock();
+            try {
+                if (!byId.containsKey(order.getId())) {
+                    put(order);
+                }
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean updateStatus(Long orderId, Order.OrderStatus status) {
+            lock.writeLock().lock();
+            try {
+                ActiveOrderDTO current = byId.get(orderId);
+                if (current == null) {
+                    return false;
+                }
+                put(current.withStatus(status));
+                version++;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Long orderId) {
+            lock.writeLock().lock();
+            try {
+                removeEntry(orderId);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<OrderSummaryDTO> list(Set<Order.OrderStatus> statuses) {
+            lock.readLock().lock();
+            try {
+                List<OrderSummaryDTO> result = new ArrayList<>();
+                for (ActiveOrderDTO order : ordered.values()) {
+                    if (statuses.contains(order.getStatus())) {
+                        result.add(order.toSummary());
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long count(Set<Order.OrderStatus> statuses) {
+            lock.readLock().lock();
+            try {
+                return ordered.values().stream().filter(order -> statuses.contains(order.getStatus())).count();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Caller holds the write lock; an order keeps its arrival position across status changes
+        private void put(ActiveOrderDTO order) {
+            byId.put(order.getId(), order);
+            ordered.put(ArrivalKey.of(order), order);
+        }
+
+        // Caller holds the write lock
+        private void removeEntry(Long orderId) {
+            ActiveOrderDTO current = byId.remove(orderId);
+            if (current != null) {
+                ordered.remove(ArrivalKey.of(current));
+            }
+        }
+    }
+}
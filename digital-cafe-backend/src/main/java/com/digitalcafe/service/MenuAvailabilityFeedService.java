@@ -0,0 +1,215 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.MenuAvailabilityDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.exception.TooManyRequestsException;
+import com.digitalcafe.util.SseFanout;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes menu availability to ordering clients over Server-Sent Events.
+ *
+ * Clients subscribe per cafe, receive the current availability bitmap straight away, and get a
+ * fresh "availability" event whenever that menu changes, so items that run out disappear from
+ * open menus before anyone orders them. Changes arrive through the menu invalidation bus; the
+ * bitmap comes from the menu snapshot cache and is built on a worker, never on the thread that
+ * committed the change, then queued for each subscriber through an {@link SseFanout}.
+ *
+ * With the default in-process bus only changes made on this node are pushed straight away.
+ * Changes made on other nodes are picked up by a periodic resync that compares each watched
+ * menu with the database, so they arrive within the resync interval instead.
+ *
+ * The endpoint is public, so streams are capped per cafe and per client address.
+ */
+@Service
+@Slf4j
+public class MenuAvailabilityFeedService {
+
+    private static final String AVAILABILITY_EVENT = "availability";
+
+    private final MenuCatalogCache menuCatalogCache;
+    private final MenuCacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final SseFanout fanout;
+    private final int maxPerCafe;
+    private final int maxPerClient;
+    private final Map<String, Integer> streamsByClient = new ConcurrentHashMap<>();
+    // Last availability pushed per cafe, to tell whether a resync found anything new
+    private final Map<Long, MenuAvailabilityDTO> lastPublished = new ConcurrentHashMap<>();
+    // Cafes with a publish queued; changes arriving meanwhile share it
+    private final Set<Long> pendingPublishes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService publishers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("menu-availability-feed-", 0).factory());
+
+    public MenuAvailabilityFeedService(MenuCatalogCache menuCatalogCache,
+                                       MenuCacheInvalidationBus invalidationBus,
+                                       ObjectMapper objectMapper,
+                                       @Value("${app.menu.availability-feed-timeout-ms:1800000}") long emitterTimeoutMillis,
+                                       @Value("${app.menu.availability-feed-max-pending-events:16}") int maxPendingEvents,
+                                       @Value("${app.menu.availability-feed-max-per-cafe:2000}") int maxPerCafe,
+                                       @Value("${app.menu.availability-feed-max-per-client:4}") int maxPerClient) {
+        this.menuCatalogCache = menuCatalogCache;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.fanout = new SseFanout("menu-availability-stream", emitterTimeoutMillis, maxPendingEvents);
+        this.maxPerCafe = Math.max(1, maxPerCafe);
+        this.maxPerClient = Math.max(1, maxPerClient);
+    }
+
+    @PostConstruct
+    void subscribeToMenuChanges() {
+        invalidationBus.subscribe(this::onMenuChanged);
+    }
+
+    public SseEmitter subscribe(Long cafeId, String client) {
+        if (fanout.getSubscriberCount(cafeId) >= maxPerCafe) {
+            throw new TooManyRequestsException("Too many availability streams open for this cafe");
+        }
+        if (!acquire(client)) {
+            throw new TooManyRequestsException("Too many availability streams open from this client");
+        }
+        try {
+            // Current state first, so a client never acts on a menu older than its subscription
+            MenuAvailabilityDTO availability = menuCatalogCache.getSnapshot(cafeId).availability();
+            lastPublished.putIfAbsent(cafeId, availability);
+            return fanout.subscribe(cafeId, availabilityEvent(availability), () -> release(client));
+        } catch (RuntimeException e) {
+            release(client);
+            throw e;
+        }
+    }
+
+    public int getSubscriberCount(Long cafeId) {
+        return fanout.getSubscriberCount(cafeId);
+    }
+
+    void onMenuChanged(MenuChangedEvent change) {
+        if (change.cafeId() == null) {
+            List.copyOf(fanout.keys()).forEach(this::schedulePublish);
+        } else if (fanout.getSubscriberCount(change.cafeId()) > 0) {
+            schedulePublish(change.cafeId());
+        }
+    }
+
+    // Keeps idle connections open through proxies and evicts clients that went away
+    @Scheduled(fixedDelayString = "${app.menu.availability-feed-heartbeat-ms:20000}")
+    public void sendHeartbeats() {
+        fanout.broadcastToAll(SseEmitter.event().comment("heartbeat"));
+    }
+
+    /**
+     * Checks every watched menu against the database and pushes availability that changed
+     * without an invalidation reaching this node, such as changes made on other nodes.
+     */
+    @Scheduled(initialDelayString = "${app.menu.availability-feed-resync-ms:30000}",
+               fixedDelayString = "${app.menu.availability-feed-resync-ms:30000}")
+    public void resync() {
+        lastPublished.keySet().retainAll(fanout.keys());
+        for (Long cafeId : List.copyOf(fanout.keys())) {
+            if (fanout.getSubscriberCount(cafeId) == 0) {
+                continue;
+            }
+            try {
+                // A stale cached menu is invalidated on the bus, which queues its publish
+                if (!menuCatalogCache.resync(cafeId)) {
+                    publishIfChanged(cafeId);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not resync menu availability for cafe {}", cafeId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publishers.shutdownNow();
+        fanout.shutdown();
+    }
+
+    private void schedulePublish(Long cafeId) {
+        if (!pendingPublishes.add(cafeId)) {
+            return;
+        }
+        try {
+            publishers.execute(() -> {
+                pendingPublishes.remove(cafeId);
+                publish(cafeId);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            pendingPublishes.remove(cafeId);
+        }
+    }
+
+    private void publish(Long cafeId) {
+        if (fanout.getSubscriberCount(cafeId) == 0) {
+            return;
+        }
+        try {
+            MenuAvailabilityDTO availability = menuCatalogCache.getSnapshot(cafeId).availability();
+            lastPublished.put(cafeId, availability);
+            fanout.broadcast(cafeId, availabilityEvent(availability));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish menu availability for cafe {}", cafeId, e);
+        }
+    }
+
+    // Covers menus evicted from the cache since their last publish, which resync cannot compare
+    private void publishIfChanged(Long cafeId) {
+        MenuAvailabilityDTO current = menuCatalogCache.getSnapshot(cafeId).availability();
+        MenuAvailabilityDTO last = lastPublished.get(cafeId);
+        if (last == null || !Objects.equals(last.getItemIds(), current.getItemIds())
+                || !Objects.equals(last.getBitmap(), current.getBitmap())) {
+            schedulePublish(cafeId);
+        }
+    }
+
+    private boolean acquire(String client) {
+        AtomicBoolean admitted = new AtomicBoolean();
+        streamsByClient.compute(client, (key, open) -> {
+            int count = open != null ? open : 0;
+            if (count >= maxPerClient) {
+                return open;
+            }
+            admitted.set(true);
+            return count + 1;
+        });
+        return admitted.get();
+    }
+
+    private void release(String client) {
+        streamsByClient.computeIfPresent(client, (key, open) -> open > 1 ? open - 1 : null);
+    }
+
+    private SseEmitter.SseEventBuilder availabilityEvent(MenuAvailabilityDTO availability) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(availability);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize menu availability", e);
+        }
+        return SseEmitter.event()
+                .name(AVAILABILITY_EVENT)
+                .id(availability.getEtag())
+                .data(json, MediaType.APPLICATION_JSON);
+    }
+}
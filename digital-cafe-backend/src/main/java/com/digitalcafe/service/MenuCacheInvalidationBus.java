@@ -0,0 +1,20 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.event.MenuChangedEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries menu and cafe catalog invalidations to every application node, including the one that
+ * published them.
+ *
+ * The default {@link InProcessMenuCacheInvalidationBus} only reaches the local node. Multi-node
+ * deployments register their own bean (for example over Redis pub/sub or a message broker),
+ * which replaces the default.
+ */
+public interface MenuCacheInvalidationBus {
+
+    void publish(MenuChangedEvent change);
+
+    void subscribe(Consumer<MenuChangedEvent> listener);
+}
@@ -0,0 +1,184 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.MenuAvailabilityDTO;
+import com.digitalcafe.dto.MenuItemDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.repository.MenuItemRepository;
+import com.digitalcafe.util.ETags;
+import com.digitalcafe.util.LruCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-cafe menu snapshots and catalog versions for the public menu and cafe endpoints.
+ *
+ * Each snapshot holds an unmodifiable DTO list loaded with one query, plus its JSON body
+ * serialized and gzipped once and its availability bitmap, and lives in a size-bounded LRU.
+ * Menu and cafe writes publish a MenuChangedEvent; after commit it goes out on the invalidation
+ * bus, and every node bumps the affected versions and drops the snapshot. Versions are per node,
+ * so ETags also carry this node's start epoch and a version never repeats for different content.
+ */
+@Service
+public class MenuCatalogCache {
+
+    public record Snapshot(String etag, List<MenuItemDTO> items, byte[] json, byte[] gzippedJson,
+                           MenuAvailabilityDTO availability) {
+    }
+
+    private static final String AVAILABILITY_VARIANT = "availability";
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuCacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final LruCache<Long, Snapshot> menus;
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong cafeListVersion = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public MenuCatalogCache(MenuItemRepository menuItemRepository,
+                            MenuCacheInvalidationBus invalidationBus,
+                            ObjectMapper objectMapper,
+                            @Value("${app.menu.cache-max-cafes:1000}") int maxCafes) {
+        this.menuItemRepository = menuItemRepository;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.menus = new LruCache<>(maxCafes);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(this::evict);
+    }
+
+    // Returned lists are shared between callers and must be treated as read-only
+    public List<MenuItemDTO> getMenu(Long cafeId) {
+        return getSnapshot(cafeId).items();
+    }
+
+    public Snapshot getSnapshot(Long cafeId) {
+        Snapshot snapshot = menus.get(cafeId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        AtomicLong version = versionOf(cafeId);
+        // One load per cafe at a time; concurrent misses wait for it instead of querying too
+        synchronized (version) {
+            snapshot = menus.get(cafeId);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long observed = version.get();
+            List<MenuItemDTO> items = List.copyOf(menuItemRepository.findDTOByCafeId(cafeId));
+            byte[] json = toJson(items);
+            String etag = menuETag(cafeId, observed);
+            snapshot = new Snapshot(etag, items, json, gzip(json), availability(cafeId, etag, items));
+            menus.put(cafeId, snapshot);
+            if (version.get() != observed) {
+                // Invalidated while loading: serve these rows once, but do not keep them
+                menus.remove(cafeId);
+            }
+            return snapshot;
+        }
+    }
+
+    // Current menu ETag, known without loading the menu
+    public String getMenuETag(Long cafeId) {
+        return menuETag(cafeId, versionOf(cafeId).get());
+    }
+
+    // Availability changes with every menu change, so its tag is derived from the menu version
+    public String getAvailabilityETag(Long cafeId) {
+        return ETags.variant(getMenuETag(cafeId), AVAILABILITY_VARIANT);
+    }
+
+    public String getCafeListETag() {
+        return "\"cafes-" + epoch + "-" + cafeListVersion.get() + "\"";
+    }
+
+    /**
+     * Compares a cached menu with the database and, if they differ, invalidates the cafe on the
+     * bus as if its change had been published. Catches changes whose invalidation never reached
+     * this node; returns whether the cached menu was stale.
+     */
+    public boolean resync(Long cafeId) {
+        Snapshot cached = menus.get(cafeId);
+        if (cached == null || cached.items().equals(menuItemRepository.findDTOByCafeId(cafeId))) {
+            return false;
+        }
+        invalidationBus.publish(new MenuChangedEvent(cafeId, null, false));
+        return true;
+    }
+
+    @TransactionalEventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        invalidationBus.publish(event);
+    }
+
+    void evict(MenuChangedEvent change) {
+        if (change.cafeChanged()) {
+            cafeListVersion.incrementAndGet();
+        }
+        if (change.cafeId() == null) {
+            versions.values().forEach(AtomicLong::incrementAndGet);
+            menus.clear();
+            return;
+        }
+        versionOf(change.cafeId()).incrementAndGet();
+        menus.remove(change.cafeId());
+    }
+
+    private String menuETag(Long cafeId, long version) {
+        return "\"menu-" + cafeId + "-" + epoch + "-" + version + "\"";
+    }
+
+    private AtomicLong versionOf(Long cafeId) {
+        return versions.computeIfAbsent(cafeId, id -> new AtomicLong());
+    }
+
+    private static MenuAvailabilityDTO availability(Long cafeId, String menuETag, List<MenuItemDTO> items) {
+        List<Long> itemIds = new ArrayList<>(items.size());
+        byte[] bitmap = new byte[(items.size() + 7) / 8];
+        for (int i = 0; i < items.size(); i++) {
+            MenuItemDTO item = items.get(i);
+            itemIds.add(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable()) && Boolean.TRUE.equals(item.getActive())) {
+                bitmap[i / 8] |= (byte) (1 << (i % 8));
+            }
+        }
+        return new MenuAvailabilityDTO(cafeId, ETags.variant(menuETag, AVAILABILITY_VARIANT),
+                List.copyOf(itemIds), Base64.getEncoder().encodeToString(bitmap));
+    }
+
+    private byte[] toJson(List<MenuItemDTO> items) {
+        try {
+            return objectMapper.writeValueAsBytes(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize menu", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
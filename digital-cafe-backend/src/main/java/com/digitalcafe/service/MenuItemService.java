@@ -1,7 +1,11 @@
 package com.digitalcafe.service;
 
+import com.digitalcafe.dto.MenuAvailabilityDTO;
 import com.digitalcafe.dto.MenuItemDTO;
 import com.digitalcafe.dto.MenuItemRequestDTO;
+import com.digitalcafe.dto.MenuStockDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.exception.BadRequestException;
 import com.digitalcafe.exception.ResourceNotFoundException;
 import com.digitalcafe.model.Cafe;
 import com.digitalcafe.model.Category;
@@ -10,53 +14,104 @@ import com.digitalcafe.repository.CafeRepository;
 import com.digitalcafe.repository.CategoryRepository;
 import com.digitalcafe.repository.MenuItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MenuItemService {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final MenuItemRepository menuItemRepository;
     private final CategoryRepository categoryRepository;
     private final CafeRepository cafeRepository;
+    private final MenuCatalogCache menuCatalogCache;
+    private final MenuSearchIndex menuSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<MenuItemDTO> getAllMenuItems() {
-        return menuItemRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return menuItemRepository.findAllDTOs();
     }
 
     @Transactional(readOnly = true)
     public MenuItemDTO getMenuItemById(Long id) {
-        MenuItem menuItem = menuItemRepository.findById(id)
+        return menuItemRepository.findDTOById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
-        return convertToDTO(menuItem);
     }
 
-    @Transactional(readOnly = true)
+    // Served from the per-cafe snapshot cache; only a miss touches the database
     public List<MenuItemDTO> getMenuItemsByCafe(Long cafeId) {
-        return menuItemRepository.findByCafeId(cafeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return menuCatalogCache.getMenu(cafeId);
+    }
+
+    // Menu with its pre-serialized JSON and gzip bodies, for the conditional GET endpoint
+    public MenuCatalogCache.Snapshot getMenuSnapshot(Long cafeId) {
+        return menuCatalogCache.getSnapshot(cafeId);
+    }
+
+    public String getMenuETag(Long cafeId) {
+        return menuCatalogCache.getMenuETag(cafeId);
+    }
+
+    // Orderable items of a cafe as a bitmap over its menu, from the same snapshot as the menu
+    public MenuAvailabilityDTO getMenuAvailability(Long cafeId) {
+        return menuCatalogCache.getSnapshot(cafeId).availability();
+    }
+
+    public String getMenuAvailabilityETag(Long cafeId) {
+        return menuCatalogCache.getAvailabilityETag(cafeId);
+    }
+
+    @Transactional(readOnly = true)
+    public MenuStockDTO getStock(Long id) {
+        return menuItemRepository.findStockById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
+    }
+
+    // Sets the portions left; an item with stock is available exactly while some is left
+    @Transactional
+    public MenuStockDTO updateStock(Long id, Integer stockQuantity) {
+        MenuItem menuItem = menuItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
+        menuItem.setStockQuantity(stockQuantity);
+        if (stockQuantity != null) {
+            menuItem.setAvailable(stockQuantity > 0);
+        }
+        menuItemRepository.save(menuItem);
+        Long cafeId = menuItem.getCafe().getId();
+        eventPublisher.publishEvent(MenuChangedEvent.forItem(cafeId, id));
+        return new MenuStockDTO(id, cafeId, menuItem.getStockQuantity(), menuItem.getAvailable());
+    }
+
+    // Served from the in-memory search index across all cafes
+    public List<MenuItemDTO> searchMenuItems(String query, Long cafeId, String city, Long categoryId,
+                                             BigDecimal minPrice, BigDecimal maxPrice, Boolean available,
+                                             int limit) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        return menuSearchIndex.search(query, cafeId, city, categoryId, minPrice, maxPrice, available,
+                clampLimit(limit));
+    }
+
+    public List<String> autocompleteMenuItems(String prefix, Long cafeId, String city, int limit) {
+        return menuSearchIndex.autocomplete(prefix, cafeId, city, clampLimit(limit));
     }
 
     @Transactional(readOnly = true)
     public List<MenuItemDTO> getMenuItemsByCategory(Long categoryId) {
-        return menuItemRepository.findByCategoryId(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return menuItemRepository.findDTOByCategoryId(categoryId);
     }
 
     @Transactional(readOnly = true)
     public List<MenuItemDTO> getAvailableMenuItems() {
-        return menuItemRepository.findByAvailableAndActive(true, true).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return menuItemRepository.findDTOByAvailableAndActive(true, true);
     }
 
     @Transactional
@@ -78,6 +133,7 @@ public class MenuItemService {
         menuItem.setActive(true);
 
         MenuItem savedMenuItem = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(MenuChangedEvent.forItem(cafe.getId(), savedMenuItem.getId()));
         return convertToDTO(savedMenuItem);
     }
 
@@ -92,6 +148,7 @@ public class MenuItemService {
         Cafe cafe = cafeRepository.findById(requestDTO.getCafeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cafe", "id", requestDTO.getCafeId()));
 
+        Long previousCafeId = menuItem.getCafe().getId();
         menuItem.setName(requestDTO.getName());
         menuItem.setDescription(requestDTO.getDescription());
         menuItem.setPrice(requestDTO.getPrice());
@@ -101,6 +158,10 @@ public class MenuItemService {
         menuItem.setAvailable(requestDTO.getAvailable());
 
         MenuItem updatedMenuItem = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(MenuChangedEvent.forItem(cafe.getId(), id));
+        if (!previousCafeId.equals(cafe.getId())) {
+            eventPublisher.publishEvent(MenuChangedEvent.forItem(previousCafeId, id));
+        }
         return convertToDTO(updatedMenuItem);
     }
 
@@ -109,6 +170,7 @@ public class MenuItemService {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
         menuItemRepository.delete(menuItem);
+        eventPublisher.publishEvent(MenuChangedEvent.forItem(menuItem.getCafe().getId(), id));
     }
 
     @Transactional
@@ -116,8 +178,11 @@ public class MenuItemService {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
         menuItem.setAvailable(!menuItem.getAvailable());
-        MenuItem updatedMenuItem = menuItemRepository.save(menuItem);
-        return convertToDTO(updatedMenuItem);
+        menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(MenuChangedEvent.forItem(menuItem.getCafe().getId(), id));
+        // Category and cafe were never loaded; the projection avoids initializing them one by one
+        return menuItemRepository.findDTOById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", id));
     }
 
     private MenuItemDTO convertToDTO(MenuItem menuItem) {
@@ -135,4 +200,8 @@ public class MenuItemService {
         dto.setActive(menuItem.getActive());
         return dto;
     }
+
+    private static int clampLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+    }
 }
@@ -0,0 +1,522 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.MenuItemDTO;
+import com.digitalcafe.dto.MenuSearchDocumentDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.repository.MenuItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-memory inverted index over menu items of all cafes, for search and autocomplete.
+ *
+ * Item names, categories and descriptions are split into lower-case terms. Each term maps to the
+ * items containing it (weighted by field), the sorted vocabulary answers prefix lookups, and a
+ * trigram index over the vocabulary finds terms within one or two edits of a misspelt query term.
+ * Every query term must match an item; exact matches rank above prefix and fuzzy ones. The index
+ * is built at startup and patched per item or per cafe from menu invalidations on the bus.
+ *
+ * Patches are loaded outside the write lock and applied only if nothing else was applied
+ * meanwhile, so an older read can never overwrite a newer one; a patch that keeps losing that race
+ * falls back to a full rebuild. Changes to every cafe (category renames) rebuild the whole index
+ * on a background thread, and a periodic rebuild picks up anything the bus missed.
+ */
+@Service
+@Slf4j
+public class MenuSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH = 4;
+    private static final int PREFIX_MATCH = 3;
+    private static final int FUZZY_MATCH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuCacheInvalidationBus invalidationBus;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, MenuSearchDocumentDTO> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> itemsByCafe = new HashMap<>();
+    // term -> (menu item id -> weight of the best field containing the term)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    // Bumped under the write lock by every patch and rebuild
+    private volatile long version;
+    // Items and cafes patched while a rebuild was loading; re-read once its rows are in
+    private final Set<Long> patchedItems = new HashSet<>();
+    private final Set<Long> patchedCafes = new HashSet<>();
+    private boolean rebuilding;
+    private final Object rebuildMonitor = new Object();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MenuSearchIndex(MenuItemRepository menuItemRepository, MenuCacheInvalidationBus invalidationBus) {
+        this.menuItemRepository = menuItemRepository;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(this::onMenuChanged);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.menu.search-resync-ms:600000}",
+               fixedDelayString = "${app.menu.search-resync-ms:600000}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<MenuSearchDocumentDTO> all;
+            try {
+                all = menuItemRepository.findSearchDocuments();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    rebuilding = false;
+                    patchedItems.clear();
+                    patchedCafes.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            List<Long> items;
+            List<Long> cafes;
+            lock.writeLock().lock();
+            try {
+                documents.clear();
+                itemsByCafe.clear();
+                postings.clear();
+                termsByTrigram.clear();
+                all.forEach(this::add);
+                version++;
+                rebuilding = false;
+                items = new ArrayList<>(patchedItems);
+                cafes = new ArrayList<>(patchedCafes);
+                patchedItems.clear();
+                patchedCafes.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Patches applied while loading may be newer than the rows just swapped in
+            cafes.forEach(this::reindexCafe);
+            items.forEach(this::reindexItem);
+            log.info("Menu search index built with {} items and {} terms", all.size(), postings.size());
+        }
+    }
+
+    void onMenuChanged(MenuChangedEvent change) {
+        if (change.cafeId() == null) {
+            requestRebuild();
+        } else if (change.menuItemId() != null) {
+            reindexItem(change.menuItemId());
+        } else {
+            reindexCafe(change.cafeId());
+        }
+    }
+
+    // Full rebuilds run off the publishing thread; requests made while one is queued share it
+    private void requestRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Menu search index rebuild failed; the next scheduled one retries it", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            rebuildQueued.set(false);
+        }
+    }
+
+    /**
+     * Items matching every term of the query (the last one also as a prefix, all of them with
+     * typo tolerance) and the given filters, best matches first. A blank query only filters.
+     */
+    public List<MenuItemDTO> search(String query, Long cafeId, String city, Long categoryId,
+                                    BigDecimal minPrice, BigDecimal maxPrice, Boolean available, int limit) {
+        lock.readLock().lock();
+        try {
+            return find(tokenize(query), true, cafeId, city, categoryId, minPrice, maxPrice, available, limit)
+                    .stream()
+                    .map(MenuSearchIndex::toMenuItemDTO)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Distinct item names completing the typed text; the last term is matched as a prefix only
+    public List<String> autocomplete(String prefix, Long cafeId, String city, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> names = new LinkedHashSet<>();
+            for (MenuSearchDocumentDTO document : find(tokens, false, cafeId, city, null, null, null, null,
+                    Integer.MAX_VALUE)) {
+                names.add(document.getName());
+                if (names.size() >= limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private List<MenuSearchDocumentDTO> find(List<String> tokens, boolean fuzzyLastToken, Long cafeId, String city,
+                                             Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                             Boolean available, int limit) {
+        Comparator<ScoredDocument> ranking = Comparator
+                .comparingInt((ScoredDocument scored) -> -scored.score())
+                .thenComparing(scored -> !Boolean.TRUE.equals(scored.document().getAvailable()))
+                .thenComparing(scored -> scored.document().getName(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(scored -> scored.document().getId());
+        Predicate<MenuSearchDocumentDTO> filter = document ->
+                accepts(document, cafeId, city, categoryId, minPrice, maxPrice, available);
+
+        // Keep only the best `limit` matches in a heap whose head is the worst of them
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(ranking.reversed());
+        if (!tokens.isEmpty()) {
+            score(tokens, fuzzyLastToken).forEach((id, score) ->
+                    consider(best, ranking, limit, documents.get(id), score, filter));
+        } else {
+            Collection<Long> ids = cafeId != null ? itemsByCafe.getOrDefault(cafeId, Set.of()) : documents.keySet();
+            ids.forEach(id -> consider(best, ranking, limit, documents.get(id), 0, filter));
+        }
+        return best.stream().sorted(ranking).map(ScoredDocument::document).toList();
+    }
+
+    private static void consider(PriorityQueue<ScoredDocument> best, Comparator<ScoredDocument> ranking, int limit,
+                                 MenuSearchDocumentDTO document, int score, Predicate<MenuSearchDocumentDTO> filter) {
+        // Most candidates score below the worst kept one; turn those away before anything else
+        if (document == null || best.size() >= limit && score < best.peek().score() || !filter.test(document)) {
+            return;
+        }
+        ScoredDocument scored = new ScoredDocument(document, score);
+        if (best.size() < limit) {
+            best.add(scored);
+        } else if (ranking.compare(scored, best.peek()) < 0) {
+            best.poll();
+            best.add(scored);
+        }
+    }
+
+    /**
+     * Scores of the items matching every token: per token the best weighted match, summed. Only
+     * the token matching the fewest items is expanded into a map; the others are probed for the
+     * items still in it, so a common term never costs more than the rarest one.
+     */
+    private Map<Long, Integer> score(List<String> tokens, boolean fuzzyLastToken) {
+        List<List<TermMatch>> tokenMatches = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            tokenMatches.add(matchToken(tokens.get(i), last, !last || fuzzyLastToken));
+        }
+        tokenMatches.sort(Comparator.comparingInt(MenuSearchIndex::matchedItems));
+
+        Map<Long, Integer> scores = new HashMap<>();
+        for (TermMatch match : tokenMatches.get(0)) {
+            match.postings().forEach((id, fieldWeight) -> scores.merge(id, fieldWeight * match.quality(), Math::max));
+        }
+        for (int i = 1; i < tokenMatches.size() && !scores.isEmpty(); i++) {
+            List<TermMatch> matches = tokenMatches.get(i);
+            scores.entrySet().removeIf(entry -> {
+                int tokenScore = 0;
+                for (TermMatch match : matches) {
+                    Integer fieldWeight = match.postings().get(entry.getKey());
+                    if (fieldWeight != null) {
+                        tokenScore = Math.max(tokenScore, fieldWeight * match.quality());
+                    }
+                }
+                if (tokenScore == 0) {
+                    return true;
+                }
+                entry.setValue(entry.getValue() + tokenScore);
+                return false;
+            });
+        }
+        return scores;
+    }
+
+    // Vocabulary terms the token matches exactly, as a prefix and within a few typos
+    private List<TermMatch> matchToken(String token, boolean allowPrefix, boolean allowFuzzy) {
+        List<TermMatch> matches = new ArrayList<>();
+        Map<Long, Integer> exact = postings.get(token);
+        if (exact != null) {
+            matches.add(new TermMatch(exact, EXACT_MATCH));
+        }
+        if (allowPrefix) {
+            int expanded = 0;
+            for (Map<Long, Integer> termPostings : postings.subMap(token, false, token + Character.MAX_VALUE, false)
+                    .values()) {
+                matches.add(new TermMatch(termPostings, PREFIX_MATCH));
+                if (++expanded >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+        }
+        // Numbers and codes are typed deliberately; near misses like item78 for item77 are wrong answers
+        if (allowFuzzy && token.length() >= MIN_FUZZY_LENGTH && !containsDigit(token)) {
+            for (String term : fuzzyTerms(token)) {
+                matches.add(new TermMatch(postings.get(term), FUZZY_MATCH));
+            }
+        }
+        return matches;
+    }
+
+    private static int matchedItems(List<TermMatch> matches) {
+        int items = 0;
+        for (TermMatch match : matches) {
+            items += match.postings().size();
+        }
+        return items;
+    }
+
+    private static boolean containsDigit(String token) {
+        return token.chars().anyMatch(Character::isDigit);
+    }
+
+    // Vocabulary terms within one edit (two for longer words) of the token, found via shared trigrams
+    private List<String> fuzzyTerms(String token) {
+        int maxEdits = token.length() <= 5 ? 1 : 2;
+        Set<String> grams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String term : termsByTrigram.getOrDefault(gram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        // Each edit changes at most three trigrams
+        int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+        List<String> terms = new ArrayList<>();
+        shared.forEach((term, count) -> {
+            if (count >= minShared && !term.equals(token)
+                    && Math.abs(term.length() - token.length()) <= maxEdits
+                    && editDistance(token, term, maxEdits) <= maxEdits) {
+                terms.add(term);
+            }
+        });
+        return terms;
+    }
+
+    private static boolean accepts(MenuSearchDocumentDTO document, Long cafeId, String city, Long categoryId,
+                                   BigDecimal minPrice, BigDecimal maxPrice, Boolean available) {
+        return Boolean.TRUE.equals(document.getActive())
+                && (cafeId == null || cafeId.equals(document.getCafeId()))
+                && (city == null || city.equalsIgnoreCase(document.getCity()))
+                && (categoryId == null || categoryId.equals(document.getCategoryId()))
+                && (minPrice == null || document.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || document.getPrice().compareTo(maxPrice) <= 0)
+                && (available == null || available.equals(document.getAvailable()));
+    }
+
+    private void reindexItem(Long menuItemId) {
+        patch(() -> menuItemRepository.findSearchDocumentById(menuItemId), document -> {
+            remove(menuItemId);
+            document.ifPresent(this::add);
+            if (rebuilding) {
+                patchedItems.add(menuItemId);
+            }
+        });
+    }
+
+    private void reindexCafe(Long cafeId) {
+        patch(() -> menuItemRepository.findSearchDocumentsByCafeId(cafeId), cafeDocuments -> {
+            new ArrayList<>(itemsByCafe.getOrDefault(cafeId, Set.of())).forEach(this::remove);
+            cafeDocuments.forEach(this::add);
+            if (rebuilding) {
+                patchedCafes.add(cafeId);
+            }
+        });
+    }
+
+    /**
+     * Loads outside the write lock and applies the rows only if no other patch or rebuild was
+     * applied meanwhile, since that one may have read newer rows. After a few lost races a full
+     * rebuild is queued instead; it reads every row afresh, so nothing is left stale and no read
+     * ever holds the lock.
+     */
+    private <T> void patch(Supplier<T> load, Consumer<T> apply) {
+        for (int attempt = 0; attempt < MAX_PATCH_ATTEMPTS; attempt++) {
+            long observed = version;
+            T rows = load.get();
+            lock.writeLock().lock();
+            try {
+                if (version == observed) {
+                    apply.accept(rows);
+                    version++;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        requestRebuild();
+    }
+
+    // Caller holds the write lock
+    private void add(MenuSearchDocumentDTO document) {
+        documents.put(document.getId(), document);
+        itemsByCafe.computeIfAbsent(document.getCafeId(), id -> new HashSet<>()).add(document.getId());
+        fieldWeights(document).forEach((term, weight) -> {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(term, termPostings);
+                for (String gram : trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            termPostings.put(document.getId(), weight);
+        });
+    }
+
+    // Caller holds the write lock
+    private void remove(Long menuItemId) {
+        MenuSearchDocumentDTO document = documents.remove(menuItemId);
+        if (document == null) {
+            return;
+        }
+        Set<Long> cafeItems = itemsByCafe.get(document.getCafeId());
+        if (cafeItems != null && cafeItems.remove(menuItemId) && cafeItems.isEmpty()) {
+            itemsByCafe.remove(document.getCafeId());
+        }
+        for (String term : fieldWeights(document).keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings == null || termPostings.remove(menuItemId) == null || !termPostings.isEmpty()) {
+                continue;
+            }
+            postings.remove(term);
+            for (String gram : trigrams(term)) {
+                Set<String> terms = termsByTrigram.get(gram);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    termsByTrigram.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> fieldWeights(MenuSearchDocumentDTO document) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(document.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Math::max));
+        tokenize(document.getCategoryName()).forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Math::max));
+        tokenize(document.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Math::max));
+        return weights;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Trigrams of the term padded with boundary markers, so short terms and word edges count too
+    private static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Levenshtein distance, giving up once it is known to exceed max
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private record TermMatch(Map<Long, Integer> postings, int quality) {
+    }
+
+    private record ScoredDocument(MenuSearchDocumentDTO document, int score) {
+    }
+
+    private static MenuItemDTO toMenuItemDTO(MenuSearchDocumentDTO document) {
+        return new MenuItemDTO(document.getId(), document.getName(), document.getDescription(), document.getPrice(),
+                document.getCategoryId(), document.getCategoryName(), document.getCafeId(), document.getCafeName(),
+                document.getImageUrl(), document.getAvailable(), document.getActive());
+    }
+}
@@ -0,0 +1,73 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.StockQuantityDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.OrderItem;
+import com.digitalcafe.repository.MenuItemRepository;
+import com.digitalcafe.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Takes and returns stock of menu items for orders.
+ *
+ * Each move is a conditional UPDATE on the item row, so it needs no prior read and can never
+ * take more than is left; the row lock lasts only until the order transaction commits. Rows are
+ * updated in menu item id order, so orders sharing several items cannot deadlock. An item that
+ * reaches zero is switched unavailable, and switched back when a cancellation returns stock;
+ * both publish a menu change so caches and availability streams follow. Items without a stock
+ * quantity are not tracked and cost no writes. Each order line records what it took, so a
+ * cancellation returns exactly that, even if the item's stock tracking changed meanwhile.
+ */
+@Service
+@RequiredArgsConstructor
+public class MenuStockService {
+
+    private final MenuItemRepository menuItemRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Called inside the order transaction, before the lines are written: sets stockTaken on each
+     * line of a tracked item. An item without enough stock fails the whole order.
+     */
+    public void take(List<OrderItem> orderItems) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, MenuItem> menuItems = new TreeMap<>();
+        for (OrderItem orderItem : orderItems) {
+            MenuItem menuItem = orderItem.getMenuItem();
+            if (menuItem.getStockQuantity() != null) {
+                quantities.merge(menuItem.getId(), orderItem.getQuantity(), Integer::sum);
+                menuItems.put(menuItem.getId(), menuItem);
+                orderItem.setStockTaken(orderItem.getQuantity());
+            }
+        }
+        quantities.forEach((menuItemId, quantity) -> {
+            MenuItem menuItem = menuItems.get(menuItemId);
+            if (menuItemRepository.takeStock(menuItemId, quantity) == 0) {
+                throw new BadRequestException("Not enough stock for menu item: " + menuItem.getName());
+            }
+            if (menuItemRepository.markSoldOutIfEmpty(menuItemId) > 0) {
+                eventPublisher.publishEvent(MenuChangedEvent.forItem(menuItem.getCafe().getId(), menuItemId));
+            }
+        });
+    }
+
+    // Returns the stock recorded as taken by the lines of an order that is being cancelled
+    public void release(Long orderId) {
+        for (StockQuantityDTO line : orderItemRepository.findStockQuantitiesByOrderId(orderId)) {
+            int quantity = line.getQuantity().intValue();
+            if (menuItemRepository.returnStock(line.getMenuItemId(), quantity) > 0
+                    && menuItemRepository.markAvailableIfRestocked(line.getMenuItemId(), quantity) > 0) {
+                eventPublisher.publishEvent(MenuChangedEvent.forItem(line.getCafeId(), line.getMenuItemId()));
+            }
+        }
+    }
+}
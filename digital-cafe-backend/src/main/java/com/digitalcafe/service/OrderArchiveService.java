@@ -0,0 +1,87 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.repository.ArchivedOrderItemRepository;
+import com.digitalcafe.repository.ArchivedOrderRepository;
+import com.digitalcafe.repository.OrderItemRepository;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves completed and cancelled orders older than a configurable age into orders_archive and
+ * order_items_archive, keeping the live tables (and their indexes) sized to recent activity.
+ *
+ * Orders are moved in chunks, each copied, unlinked from its payment and deleted in one short
+ * transaction that only locks the rows of that chunk. Archived rows keep their ids and are
+ * always older than the cutoff, which lets readers skip the archive for recent data.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int archiveAfterDays;
+    private final int batchSize;
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               ArchivedOrderItemRepository archivedOrderItemRepository,
+                               PaymentRepository paymentRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.orders.archive-after-days:180}") int archiveAfterDays,
+                               @Value("${app.orders.archive-batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.archiveAfterDays = Math.max(1, archiveAfterDays);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Start of the first day whose orders are never archived
+    public LocalDateTime getCutoff() {
+        return LocalDate.now().minusDays(archiveAfterDays).atStartOfDay();
+    }
+
+    @Scheduled(cron = "${app.orders.archive-cron:0 45 3 * * *}")
+    public void archiveOldOrders() {
+        LocalDateTime cutoff = getCutoff();
+        int archived = 0;
+        int moved;
+        do {
+            moved = chunkTransaction.execute(status -> archiveChunk(cutoff));
+            archived += moved;
+        } while (moved == batchSize);
+        log.info("Archived {} orders created before {}", archived, cutoff);
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.lockArchivableIds(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyFromOrders(ids, LocalDateTime.now());
+        archivedOrderItemRepository.copyFromOrderItems(ids);
+        paymentRepository.moveToArchivedOrders(ids);
+        orderItemRepository.deleteAllByOrderIdIn(ids);
+        orderRepository.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,97 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.model.OrderNumberSequence;
+import com.digitalcafe.repository.OrderNumberSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out unique, per-cafe sequential order numbers such as {@code ORD-12-000345}.
+ *
+ * Each node reserves a block of numbers from {@code order_number_sequences} in a short
+ * separate transaction and serves the block from memory, so the database is touched once
+ * per block rather than once per order. Blocks never overlap across nodes; numbers left in
+ * a block when a node stops are simply skipped. A cafe's row is created in its own statement
+ * before it is ever locked: locking a missing row and inserting it in the same transaction takes
+ * gap locks on MySQL, and two nodes doing that at once deadlock.
+ */
+@Component
+@Slf4j
+public class OrderNumberAllocator {
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final OrderNumberSequenceRepository sequenceRepository;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+    private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    public OrderNumberAllocator(OrderNumberSequenceRepository sequenceRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.orders.number-block-size:100}") int blockSize) {
+        this.sequenceRepository = sequenceRepository;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public String nextOrderNumber(Long cafeId) {
+        Block block = blocks.computeIfAbsent(cafeId, id -> new Block());
+        long value;
+        synchronized (block) {
+            if (block.next >= block.end) {
+                long start = reserveBlock(cafeId);
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            value = block.next++;
+        }
+        return String.format("ORD-%d-%06d", cafeId, value);
+    }
+
+    private long reserveBlock(Long cafeId) {
+        boolean created = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = reserveTransaction.execute(status -> sequenceRepository.findByCafeIdForUpdate(cafeId)
+                        .map(sequence -> {
+                            long first = sequence.getNextValue();
+                            sequence.setNextValue(first + blockSize);
+                            sequenceRepository.saveAndFlush(sequence);
+                            return first;
+                        })
+                        .orElse(null));
+                if (start == null) {
+                    if (created) {
+                        throw new IllegalStateException("Order number sequence missing for cafe " + cafeId);
+                    }
+                    // First block for this cafe: create the row, then lock it on the next pass
+                    reserveTransaction.executeWithoutResult(status -> sequenceRepository.insertIfAbsent(cafeId));
+                    created = true;
+                    attempt--;
+                    continue;
+                }
+                log.debug("Reserved order numbers {}..{} for cafe {}", start, start + blockSize - 1, cafeId);
+                return start;
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock victim or lock wait timeout; the transaction was rolled back, so retry it
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -1,70 +1,132 @@
 package com.digitalcafe.service;
 
+import com.digitalcafe.dto.BulkTransitionResultDTO;
+import com.digitalcafe.dto.CursorPageDTO;
 import com.digitalcafe.dto.OrderDTO;
 import com.digitalcafe.dto.OrderItemDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
 import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.event.OrderPreparedEvent;
+import com.digitalcafe.event.OrderStatusChangedEvent;
 import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.exception.ConflictException;
 import com.digitalcafe.exception.ResourceNotFoundException;
 import com.digitalcafe.model.*;
 import com.digitalcafe.repository.*;
+import com.digitalcafe.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int CANCEL_ATTEMPTS = 3;
+    private static final Set<Order.OrderStatus> ARCHIVED_STATUSES =
+            EnumSet.of(Order.OrderStatus.COMPLETED, Order.OrderStatus.CANCELLED);
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CafeRepository cafeRepository;
     private final MenuItemRepository menuItemRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final OrderStateMachine orderStateMachine;
+    private final MenuStockService menuStockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional(readOnly = true)
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-    }
+    public CursorPageDTO<OrderDTO> getOrders(Long cafeId, Long customerId, String status,
+                                             LocalDateTime from, LocalDateTime to,
+                                             String cursor, Integer size) {
+        Order.OrderStatus orderStatus = status != null ? Order.OrderStatus.valueOf(status.toUpperCase()) : null;
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+
+        // Fetch one extra row to know whether another page exists
+        LocalDateTime afterCreatedAt = after != null ? after.timestamp() : null;
+        Long afterId = after != null ? after.id() : null;
+        List<OrderDTO> orders = orderRepository.findDTOPage(cafeId, customerId, orderStatus, from, to,
+                afterCreatedAt, afterId, PageRequest.of(0, pageSize + 1));
+
+        // Archived orders are all older than the cutoff, so recent pages never need the archive
+        LocalDateTime cutoff = orderArchiveService.getCutoff();
+        boolean reachesArchive = orders.size() <= pageSize || orders.get(pageSize).getCreatedAt().isBefore(cutoff);
+        List<OrderDTO> archived = List.of();
+        if (reachesArchive && (from == null || from.isBefore(cutoff))
+                && (orderStatus == null || ARCHIVED_STATUSES.contains(orderStatus))) {
+            archived = archivedOrderRepository.findDTOPage(cafeId, customerId, orderStatus, from, to,
+                    afterCreatedAt, afterId, PageRequest.of(0, pageSize + 1));
+            orders = mergeNewestFirst(orders, archived, pageSize + 1);
+        }
 
-    @Transactional(readOnly = true)
-    public OrderDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
-        return convertToDTO(order);
-    }
+        boolean hasMore = orders.size() > pageSize;
+        List<OrderDTO> page = hasMore ? new ArrayList<>(orders.subList(0, pageSize)) : orders;
+        if (archived.isEmpty()) {
+            attachOrderItems(page);
+        } else {
+            Set<Long> archivedIds = archived.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+            Map<Boolean, List<OrderDTO>> byArchived = page.stream()
+                    .collect(Collectors.partitioningBy(order -> archivedIds.contains(order.getId())));
+            attachOrderItems(byArchived.get(false));
+            attachArchivedOrderItems(byArchived.get(true));
+        }
 
-    @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByCustomer(Long customerId) {
-        return orderRepository.findByCustomerId(customerId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            OrderDTO last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(page, nextCursor, hasMore, page.size());
     }
 
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByCafe(Long cafeId) {
-        return orderRepository.findByCafeId(cafeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public OrderDTO getOrderById(Long id) {
+        Optional<OrderDTO> live = orderRepository.findDTOById(id);
+        if (live.isPresent()) {
+            attachOrderItems(List.of(live.get()));
+            return live.get();
+        }
+        OrderDTO archived = archivedOrderRepository.findDTOById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+        attachArchivedOrderItems(List.of(archived));
+        return archived;
     }
 
-    @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByStatus(String status) {
-        Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
-        return orderRepository.findByStatus(orderStatus).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public OrderDTO createOrder(OrderRequestDTO requestDTO) {
+        if (!cafeRepository.existsById(requestDTO.getCafeId())) {
+            throw new ResourceNotFoundException("Cafe", "id", requestDTO.getCafeId());
+        }
+        // Drawn before the order transaction opens: reserving a new block of numbers takes a
+        // connection of its own, and callers queued behind it while holding theirs can drain the pool
+        String orderNumber = orderNumberAllocator.nextOrderNumber(requestDTO.getCafeId());
+        return transactionTemplate.execute(status -> placeOrder(requestDTO, orderNumber));
     }
 
-    @Transactional
-    public OrderDTO createOrder(OrderRequestDTO requestDTO) {
+    private OrderDTO placeOrder(OrderRequestDTO requestDTO, String orderNumber) {
         User customer = userRepository.findById(requestDTO.getCustomerId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", requestDTO.getCustomerId()));
 
@@ -76,7 +138,7 @@ public class OrderService {
         }
 
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setCustomer(customer);
         order.setCafe(cafe);
         order.setOrderType(Order.OrderType.valueOf(requestDTO.getOrderType().toUpperCase()));
@@ -84,17 +146,35 @@ public class OrderService {
         order.setStatus(Order.OrderStatus.PLACED);
         order.setOrderPlacedAt(LocalDateTime.now());
 
+        // Resolve every menu item in one query instead of one lookup per line
+        List<Long> menuItemIds = requestDTO.getOrderItems().stream()
+                .map(OrderItemRequestDTO::getMenuItemId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(menuItemIds).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (var itemRequest : requestDTO.getOrderItems()) {
-            MenuItem menuItem = menuItemRepository.findById(itemRequest.getMenuItemId())
-                    .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", itemRequest.getMenuItemId()));
+            MenuItem menuItem = menuItems.get(itemRequest.getMenuItemId());
+            if (menuItem == null) {
+                throw new ResourceNotFoundException("MenuItem", "id", itemRequest.getMenuItemId());
+            }
+
+            if (!menuItem.getCafe().getId().equals(cafe.getId())) {
+                throw new BadRequestException("Menu item does not belong to this cafe: " + menuItem.getName());
+            }
 
             if (!menuItem.getAvailable()) {
                 throw new BadRequestException("Menu item is not available: " + menuItem.getName());
             }
 
+            if (menuItem.getStockQuantity() != null && menuItem.getStockQuantity() < itemRequest.getQuantity()) {
+                throw new BadRequestException("Not enough stock for menu item: " + menuItem.getName());
+            }
+
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setMenuItem(menuItem);
@@ -107,11 +187,22 @@ public class OrderService {
             totalAmount = totalAmount.add(orderItem.getSubtotal());
         }
 
-        order.setOrderItems(orderItems);
+        order.setOrderItems(new ArrayList<>());
         order.setTotalAmount(totalAmount);
 
+        // Items are written with one JDBC batch rather than cascaded identity inserts
         Order savedOrder = orderRepository.save(order);
-        return convertToDTO(savedOrder);
+        // Late in the transaction, so hot item rows stay locked briefly; before the lines are
+        // written, since each line records the stock it took
+        menuStockService.take(orderItems);
+        orderItemRepository.batchInsert(orderItems);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, null, savedOrder.getStatus(), orderItems));
+
+        OrderDTO dto = convertToDTO(savedOrder);
+        dto.setOrderItems(orderItems.stream()
+                .map(this::convertOrderItemToDTO)
+                .collect(Collectors.toList()));
+        return dto;
     }
 
     @Transactional
@@ -119,10 +210,18 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
+        Order.OrderStatus previousStatus = order.getStatus();
         Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status.toUpperCase());
-        order.setStatus(newStatus);
+        // Cancelling gave the order's stock back; reopening would serve it without taking it again
+        if (previousStatus == Order.OrderStatus.CANCELLED && newStatus != Order.OrderStatus.CANCELLED) {
+            throw new BadRequestException("Cancelled orders cannot be reopened");
+        }
 
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = orderStateMachine.setStatus(order, newStatus);
+        if (newStatus == Order.OrderStatus.CANCELLED && previousStatus != Order.OrderStatus.CANCELLED) {
+            menuStockService.release(id);
+        }
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(updatedOrder, previousStatus));
         return convertToDTO(updatedOrder);
     }
 
@@ -135,8 +234,9 @@ public class OrderService {
             throw new BadRequestException("Order can only be confirmed from PLACED status");
         }
         
-        order.setStatus(Order.OrderStatus.CONFIRMED);
-        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order savedOrder = orderStateMachine.setStatus(order, Order.OrderStatus.CONFIRMED);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
         
         return convertToDTO(savedOrder);
     }
@@ -157,11 +257,9 @@ public class OrderService {
             throw new BadRequestException("Order can only be prepared from CONFIRMED or PLACED status");
         }
         
-        order.setStatus(Order.OrderStatus.PREPARING);
-        order.setPreparingStartedAt(LocalDateTime.now());
-        order.setPreparedBy(chef);
-        
-        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order savedOrder = orderStateMachine.startPreparing(order, chef);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
         return convertToDTO(savedOrder);
     }
 
@@ -178,10 +276,10 @@ public class OrderService {
             throw new BadRequestException("Only the chef preparing this order can mark it ready");
         }
         
-        order.setStatus(Order.OrderStatus.READY);
-        order.setReadyAt(LocalDateTime.now());
-        
-        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order savedOrder = orderStateMachine.markReady(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
+        eventPublisher.publishEvent(OrderPreparedEvent.of(savedOrder));
         return convertToDTO(savedOrder);
     }
 
@@ -201,11 +299,9 @@ public class OrderService {
             throw new BadRequestException("Order can only be served from READY status");
         }
         
-        order.setStatus(Order.OrderStatus.SERVED);
-        order.setServedAt(LocalDateTime.now());
-        order.setServedBy(waiter);
-        
-        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order savedOrder = orderStateMachine.markServed(order, waiter);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
         return convertToDTO(savedOrder);
     }
 
@@ -218,40 +314,200 @@ public class OrderService {
             throw new BadRequestException("Order can only be completed from SERVED status");
         }
         
-        order.setStatus(Order.OrderStatus.COMPLETED);
-        order.setCompletedAt(LocalDateTime.now());
-        
-        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order savedOrder = orderStateMachine.complete(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
         return convertToDTO(savedOrder);
     }
 
     @Transactional
     public OrderDTO cancelOrder(Long orderId, String reason) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        
-        if (order.getStatus() == Order.OrderStatus.COMPLETED || 
-            order.getStatus() == Order.OrderStatus.CANCELLED) {
-            throw new BadRequestException("Cannot cancel completed or already cancelled order");
+        // Cancellation holds whatever the kitchen did meanwhile, so a lost race is re-evaluated from a fresh read
+        return orderStateMachine.retryOnConflict(CANCEL_ATTEMPTS, () -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+
+            if (!OrderStateMachine.canTransition(order.getStatus(), Order.OrderStatus.CANCELLED)) {
+                throw new BadRequestException("Cannot cancel completed or already cancelled order");
+            }
+
+            Order.OrderStatus previousStatus = order.getStatus();
+            Order savedOrder = orderStateMachine.cancel(order, reason);
+            menuStockService.release(orderId);
+            eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
+            return convertToDTO(savedOrder);
+        });
+    }
+
+    @Transactional
+    public BulkTransitionResultDTO startPreparingAll(List<Long> orderIds, String chefUsername) {
+        User chef = findStaff(chefUsername, User.Role.CHEF, "Only chefs can start preparing orders");
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Order> applied = applyBulk(orderIds, Order.OrderStatus.PREPARING, failed,
+                order -> null,
+                ids -> orderRepository.startPreparingAll(ids, chef, now));
+        return toBulkResult(Order.OrderStatus.PREPARING, applied, failed);
+    }
+
+    @Transactional
+    public BulkTransitionResultDTO markReadyAll(List<Long> orderIds, String chefUsername) {
+        Long chefId = findStaff(chefUsername, User.Role.CHEF, "Only chefs can mark orders ready").getId();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Order> applied = applyBulk(orderIds, Order.OrderStatus.READY, failed,
+                order -> order.getPreparedBy() == null || !order.getPreparedBy().getId().equals(chefId)
+                        ? "Only the chef preparing this order can mark it ready" : null,
+                ids -> orderRepository.markReadyAll(ids, now));
+
+        if (!applied.isEmpty()) {
+            Map<Long, List<Long>> menuItemsByOrder = orderItemRepository.findWithMenuItemByOrderIdIn(
+                            applied.stream().map(Order::getId).toList()).stream()
+                    .collect(Collectors.groupingBy(item -> item.getOrder().getId(),
+                            Collectors.mapping(item -> item.getMenuItem().getId(),
+                                    Collectors.collectingAndThen(Collectors.toList(),
+                                            menuItemIds -> menuItemIds.stream().distinct().toList()))));
+            for (Order order : applied) {
+                eventPublisher.publishEvent(new OrderPreparedEvent(order.getId(), order.getCafe().getId(), chefId,
+                        order.getPreparingStartedAt(), now, menuItemsByOrder.getOrDefault(order.getId(), List.of())));
+            }
         }
-        
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        order.setSpecialInstructions(order.getSpecialInstructions() + " | Cancelled: " + reason);
-        
-        Order savedOrder = orderRepository.save(order);
-        return convertToDTO(savedOrder);
+        return toBulkResult(Order.OrderStatus.READY, applied, failed);
+    }
+
+    @Transactional
+    public BulkTransitionResultDTO markServedAll(List<Long> orderIds, String waiterUsername) {
+        User waiter = findStaff(waiterUsername, User.Role.WAITER, "Only waiters can serve orders");
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Order> applied = applyBulk(orderIds, Order.OrderStatus.SERVED, failed,
+                order -> null,
+                ids -> orderRepository.markServedAll(ids, waiter, now));
+        return toBulkResult(Order.OrderStatus.SERVED, applied, failed);
+    }
+
+    @Transactional
+    public BulkTransitionResultDTO completeAll(List<Long> orderIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Order> applied = applyBulk(orderIds, Order.OrderStatus.COMPLETED, failed,
+                order -> null,
+                ids -> orderRepository.completeAll(ids, now));
+        return toBulkResult(Order.OrderStatus.COMPLETED, applied, failed);
     }
 
     @Transactional
     public void deleteOrder(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, order.getStatus(), null,
+                OrderStatusChangedEvent.countsAsSold(order.getStatus()) ? order.getOrderItems() : List.of()));
         orderRepository.delete(order);
     }
 
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "ORD" + timestamp;
+    // The acting staff member is the authenticated user, never an id taken from the request body
+    private User findStaff(String username, User.Role role, String wrongRoleMessage) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        if (user.getRole() != role) {
+            throw new BadRequestException(wrongRoleMessage);
+        }
+        return user;
+    }
+
+    /**
+     * Locks the batch, sorts orders into those that may move to the target status and those that may not,
+     * then moves all accepted orders with one UPDATE. Rejected orders are reported in failed and left untouched.
+     */
+    private List<Order> applyBulk(List<Long> orderIds, Order.OrderStatus target, Map<Long, String> failed,
+                                  Function<Order, String> rejection, ToIntFunction<List<Long>> update) {
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, Order> orders = orderRepository.findAllForUpdateByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<Order> accepted = new ArrayList<>();
+        for (Long id : ids) {
+            Order order = orders.get(id);
+            String reason;
+            if (order == null) {
+                reason = "Order not found";
+            } else if (!OrderStateMachine.canTransition(order.getStatus(), target)) {
+                reason = "Cannot move order from " + order.getStatus() + " to " + target;
+            } else {
+                reason = rejection.apply(order);
+            }
+            if (reason != null) {
+                failed.put(id, reason);
+            } else {
+                accepted.add(order);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+
+        // The rows are locked, so every accepted order must match; anything else is a bug, not a race
+        int updated = update.applyAsInt(accepted.stream().map(Order::getId).toList());
+        if (updated != accepted.size()) {
+            throw new ConflictException(String.format("Bulk transition to %s updated %d of %d orders",
+                    target, updated, accepted.size()));
+        }
+        for (Order order : accepted) {
+            eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, order.getStatus(), target, List.of()));
+        }
+        return accepted;
+    }
+
+    private BulkTransitionResultDTO toBulkResult(Order.OrderStatus target, List<Order> applied,
+                                                 Map<Long, String> failed) {
+        return new BulkTransitionResultDTO(target.name(), applied.stream().map(Order::getId).toList(), failed);
+    }
+
+    // Loads the items of all given orders with one query and attaches them to the DTOs
+    private List<OrderDTO> attachOrderItems(List<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        List<Long> orderIds = orders.stream().map(OrderDTO::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemRepository.findWithMenuItemByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getOrder().getId(),
+                        Collectors.mapping(this::convertOrderItemToDTO, Collectors.toList())));
+
+        orders.forEach(order -> order.setOrderItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())));
+        return orders;
+    }
+
+    private void attachArchivedOrderItems(List<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        List<Long> orderIds = orders.stream().map(OrderDTO::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItemDTO>> itemsByOrder = archivedOrderItemRepository.findByOrderIdInOrderById(orderIds).stream()
+                .collect(Collectors.groupingBy(ArchivedOrderItem::getOrderId,
+                        Collectors.mapping(item -> new OrderItemDTO(item.getId(), item.getMenuItemId(),
+                                item.getMenuItemName(), item.getQuantity(), item.getPrice(), item.getSubtotal(),
+                                item.getNotes()), Collectors.toList())));
+
+        orders.forEach(order -> order.setOrderItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())));
+    }
+
+    // Merges two lists already sorted by (createdAt, id) descending, keeping at most limit entries
+    private static List<OrderDTO> mergeNewestFirst(List<OrderDTO> first, List<OrderDTO> second, int limit) {
+        Comparator<OrderDTO> newestFirst = Comparator.comparing(OrderDTO::getCreatedAt)
+                .thenComparing(OrderDTO::getId).reversed();
+        List<OrderDTO> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && newestFirst.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
     }
 
     private OrderDTO convertToDTO(Order order) {
@@ -0,0 +1,118 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.exception.ConflictException;
+import com.digitalcafe.exception.ResourceNotFoundException;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Applies order status transitions as version-checked conditional updates.
+ *
+ * Callers read the order, validate the move, then hand the observed order here. The update only
+ * matches while the row still has the observed status and version, so when two chefs or waiters
+ * race for the same order exactly one wins and the other gets a ConflictException, without
+ * holding row locks across the read. Each method returns the order as stored after the update.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> TRANSITIONS =
+            new EnumMap<>(Order.OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(Order.OrderStatus.PLACED, EnumSet.of(Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PREPARING, Order.OrderStatus.CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.CONFIRMED, EnumSet.of(Order.OrderStatus.PREPARING,
+                Order.OrderStatus.CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.PREPARING, EnumSet.of(Order.OrderStatus.READY,
+                Order.OrderStatus.CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.READY, EnumSet.of(Order.OrderStatus.SERVED,
+                Order.OrderStatus.CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.SERVED, EnumSet.of(Order.OrderStatus.COMPLETED,
+                Order.OrderStatus.CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.COMPLETED, EnumSet.noneOf(Order.OrderStatus.class));
+        TRANSITIONS.put(Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+    }
+
+    private final OrderRepository orderRepository;
+
+    public static boolean canTransition(Order.OrderStatus from, Order.OrderStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    // Unrestricted status change (admin override); still version-checked
+    public Order setStatus(Order observed, Order.OrderStatus to) {
+        return verify(observed, orderRepository.updateStatusIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), to, LocalDateTime.now()));
+    }
+
+    public Order startPreparing(Order observed, User chef) {
+        return verify(observed, orderRepository.startPreparingIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), chef, LocalDateTime.now()));
+    }
+
+    public Order markReady(Order observed) {
+        return verify(observed, orderRepository.markReadyIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), LocalDateTime.now()));
+    }
+
+    public Order markServed(Order observed, User waiter) {
+        return verify(observed, orderRepository.markServedIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), waiter, LocalDateTime.now()));
+    }
+
+    public Order complete(Order observed) {
+        return verify(observed, orderRepository.completeIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), LocalDateTime.now()));
+    }
+
+    public Order cancel(Order observed, String reason) {
+        String existing = observed.getSpecialInstructions();
+        String instructions = (existing == null || existing.isBlank() ? "" : existing + " | ") + "Cancelled: " + reason;
+        return verify(observed, orderRepository.cancelIfUnchanged(observed.getId(), observed.getStatus(),
+                observed.getVersion(), instructions, LocalDateTime.now()));
+    }
+
+    /**
+     * Runs a read-validate-transition action, re-running it from a fresh read when it loses a race.
+     * Conflicts are detected by row count rather than database errors, so the surrounding
+     * transaction stays usable between attempts.
+     */
+    public <T> T retryOnConflict(int maxAttempts, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConflictException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Order verify(Order observed, int updated) {
+        if (updated > 0) {
+            return orderRepository.findById(observed.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", observed.getId()));
+        }
+        // Lost the race: a locking read sees the committed row even under a repeatable-read snapshot,
+        // and leaves it in the persistence context for a retried read
+        Order current = orderRepository.findCurrentById(observed.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", observed.getId()));
+        throw new ConflictException(String.format(
+                "Order %s was changed concurrently: expected %s (version %d) but found %s (version %d)",
+                current.getOrderNumber(), observed.getStatus(), observed.getVersion(),
+                current.getStatus(), current.getVersion()));
+    }
+}
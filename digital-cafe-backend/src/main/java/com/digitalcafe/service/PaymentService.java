@@ -2,6 +2,9 @@ package com.digitalcafe.service;
 
 import com.digitalcafe.dto.PaymentDTO;
 import com.digitalcafe.dto.PaymentRequestDTO;
+import com.digitalcafe.event.OrderStatusChangedEvent;
+import com.digitalcafe.event.PaymentStatusChangedEvent;
+import com.digitalcafe.exception.ConflictException;
 import com.digitalcafe.model.Order;
 import com.digitalcafe.model.Payment;
 import com.digitalcafe.model.User;
@@ -10,6 +13,7 @@ import com.digitalcafe.repository.PaymentRepository;
 import com.digitalcafe.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,6 +44,15 @@ public class PaymentService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private MenuStockService menuStockService;
+
     @Value("${razorpay.key.id:}")
     private String razorpayKeyId;
 
@@ -85,8 +98,9 @@ public class PaymentService {
         paymentRepository.save(payment);
 
         // Update order status
-        order.setStatus(Order.OrderStatus.CONFIRMED);
-        orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        order = orderStateMachine.setStatus(order, Order.OrderStatus.CONFIRMED);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus));
 
         // Create Razorpay order (in production, use actual Razorpay API)
         Map<String, Object> response = new HashMap<>();
@@ -101,7 +115,8 @@ public class PaymentService {
         if ("TEST".equals(paymentGateway)) {
             payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
             payment.setPaymentDate(LocalDateTime.now());
-            paymentRepository.save(payment);
+            payment = paymentRepository.save(payment);
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(payment));
             
             // Order remains CONFIRMED after payment, ready for preparation workflow
             orderRepository.save(order);
@@ -118,6 +133,7 @@ public class PaymentService {
     public PaymentDTO verifyPayment(String transactionId, String razorpaySignature) {
         Payment payment = paymentRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
+        requireLiveOrder(payment);
 
         // Verify signature (in production, use actual Razorpay signature verification)
         boolean isValid = verifyRazorpaySignature(transactionId, razorpaySignature);
@@ -126,6 +142,7 @@ public class PaymentService {
             payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
             payment.setPaymentDate(LocalDateTime.now());
             paymentRepository.save(payment);
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(payment));
 
             // Order remains CONFIRMED after payment
             Order order = payment.getOrder();
@@ -152,15 +169,21 @@ public class PaymentService {
         if (payment.getPaymentStatus() != Payment.PaymentStatus.SUCCESS) {
             throw new RuntimeException("Cannot refund payment that is not successful");
         }
+        requireLiveOrder(payment);
 
         // Process refund (in production, use actual Razorpay refund API)
         payment.setPaymentStatus(Payment.PaymentStatus.REFUNDED);
         paymentRepository.save(payment);
+        eventPublisher.publishEvent(PaymentStatusChangedEvent.of(payment));
 
         // Update order status
         Order order = payment.getOrder();
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        Order.OrderStatus previousStatus = order.getStatus();
+        order = orderStateMachine.setStatus(order, Order.OrderStatus.CANCELLED);
+        if (previousStatus != Order.OrderStatus.CANCELLED) {
+            menuStockService.release(order.getId());
+        }
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus));
 
         // Send refund email
         emailService.sendOrderStatusEmail(order.getCustomer().getEmail(),
@@ -182,6 +205,7 @@ public class PaymentService {
 
     public PaymentDTO getPaymentByOrderId(Long orderId) {
         Payment payment = paymentRepository.findByOrderId(orderId)
+                .or(() -> paymentRepository.findByArchivedOrderId(orderId))
                 .orElseThrow(() -> new RuntimeException("Payment not found for order"));
         return convertToDTO(payment);
     }
@@ -210,10 +234,18 @@ public class PaymentService {
         }
     }
 
+    // Archived orders are read-only: they can no longer be confirmed, cancelled or counted again
+    private void requireLiveOrder(Payment payment) {
+        if (payment.getOrder() == null) {
+            throw new ConflictException("Order " + payment.getArchivedOrderId()
+                    + " has been archived; its payment can no longer be verified or refunded");
+        }
+    }
+
     private PaymentDTO convertToDTO(Payment payment) {
         return PaymentDTO.builder()
                 .id(payment.getId())
-                .orderId(payment.getOrder() != null ? payment.getOrder().getId() : null)
+                .orderId(payment.getOrder() != null ? payment.getOrder().getId() : payment.getArchivedOrderId())
                 .bookingId(payment.getBooking() != null ? payment.getBooking().getId() : null)
                 .amount(payment.getAmount())
                 .paymentMethod(payment.getPaymentMethod().toString())
@@ -0,0 +1,144 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.PrepTimeStatsDTO;
+import com.digitalcafe.dto.PreparationSampleDTO;
+import com.digitalcafe.dto.PreparationStatsDTO;
+import com.digitalcafe.event.OrderPreparedEvent;
+import com.digitalcafe.repository.OrderItemRepository;
+import com.digitalcafe.util.RollingHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory preparation time statistics per cafe, chef and menu item over a rolling window.
+ *
+ * Each order marked READY is recorded once for its cafe and chef and once for every distinct
+ * menu item it contains, so item figures describe orders containing that item. Histograms are
+ * warmed from recent orders at startup and then fed after each markReady commit; reads merge
+ * a fixed number of buckets and never touch the database.
+ */
+@Service
+@Slf4j
+public class PreparationTimeTracker {
+
+    private final OrderItemRepository orderItemRepository;
+    private final int windowDays;
+    private final Map<Long, CafePrepStats> cafes = new ConcurrentHashMap<>();
+
+    public PreparationTimeTracker(OrderItemRepository orderItemRepository,
+                                  @Value("${app.orders.prep-stats-window-days:7}") int windowDays) {
+        this.orderItemRepository = orderItemRepository;
+        this.windowDays = Math.max(1, windowDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        LocalDateTime since = LocalDate.now().minusDays(windowDays - 1L).atStartOfDay();
+        List<PreparationSampleDTO> samples = orderItemRepository.findPreparationSamplesSince(since);
+
+        // Rows are ordered by order id, one per item; record each order once with all its items
+        int orders = 0;
+        int start = 0;
+        while (start < samples.size()) {
+            PreparationSampleDTO first = samples.get(start);
+            int end = start;
+            List<Long> menuItemIds = new ArrayList<>();
+            while (end < samples.size() && samples.get(end).getOrderId().equals(first.getOrderId())) {
+                Long menuItemId = samples.get(end).getMenuItemId();
+                if (!menuItemIds.contains(menuItemId)) {
+                    menuItemIds.add(menuItemId);
+                }
+                end++;
+            }
+            record(first.getCafeId(), first.getChefId(), menuItemIds,
+                    first.getPreparingStartedAt(), first.getReadyAt());
+            orders++;
+            start = end;
+        }
+        log.info("Preparation time tracker warmed with {} orders from the last {} days", orders, windowDays);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPrepared(OrderPreparedEvent event) {
+        record(event.cafeId(), event.chefId(), event.menuItemIds(), event.preparingStartedAt(), event.readyAt());
+    }
+
+    public PrepTimeStatsDTO getCafeStats(Long cafeId) {
+        CafePrepStats stats = cafes.get(cafeId);
+        return toDTO(stats != null ? stats.cafe.snapshot(LocalDate.now()) : null);
+    }
+
+    public PreparationStatsDTO getStats(Long cafeId) {
+        LocalDate today = LocalDate.now();
+        CafePrepStats stats = cafes.get(cafeId);
+        Map<Long, PrepTimeStatsDTO> byChef = new TreeMap<>();
+        Map<Long, PrepTimeStatsDTO> byMenuItem = new TreeMap<>();
+        if (stats == null) {
+            return new PreparationStatsDTO(cafeId, windowDays, toDTO(null), byChef, byMenuItem);
+        }
+        stats.chefs.forEach((id, histogram) -> addIfPresent(byChef, id, histogram.snapshot(today)));
+        stats.menuItems.forEach((id, histogram) -> addIfPresent(byMenuItem, id, histogram.snapshot(today)));
+        return new PreparationStatsDTO(cafeId, windowDays, toDTO(stats.cafe.snapshot(today)), byChef, byMenuItem);
+    }
+
+    private void record(Long cafeId, Long chefId, List<Long> menuItemIds,
+                        LocalDateTime startedAt, LocalDateTime readyAt) {
+        if (startedAt == null || readyAt == null || readyAt.isBefore(startedAt)) {
+            return;
+        }
+        long seconds = Duration.between(startedAt, readyAt).getSeconds();
+        LocalDate day = readyAt.toLocalDate();
+
+        CafePrepStats stats = cafes.computeIfAbsent(cafeId, id -> new CafePrepStats(windowDays));
+        stats.cafe.record(seconds, day);
+        if (chefId != null) {
+            stats.chefs.computeIfAbsent(chefId, id -> new RollingHistogram(windowDays)).record(seconds, day);
+        }
+        for (Long menuItemId : menuItemIds) {
+            stats.menuItems.computeIfAbsent(menuItemId, id -> new RollingHistogram(windowDays)).record(seconds, day);
+        }
+    }
+
+    private static void addIfPresent(Map<Long, PrepTimeStatsDTO> target, Long id, RollingHistogram.Snapshot snapshot) {
+        if (snapshot.count() > 0) {
+            target.put(id, toDTO(snapshot));
+        }
+    }
+
+    private static PrepTimeStatsDTO toDTO(RollingHistogram.Snapshot snapshot) {
+        if (snapshot == null || snapshot.count() == 0) {
+            return new PrepTimeStatsDTO(0L, 0.0, 0.0, 0.0, 0.0);
+        }
+        return new PrepTimeStatsDTO(snapshot.count(), minutes(snapshot.mean()), minutes(snapshot.p50()),
+                minutes(snapshot.p90()), minutes(snapshot.p99()));
+    }
+
+    private static double minutes(double seconds) {
+        return Math.round(seconds / 6.0) / 10.0;
+    }
+
+    private static final class CafePrepStats {
+        private final RollingHistogram cafe;
+        private final Map<Long, RollingHistogram> chefs = new ConcurrentHashMap<>();
+        private final Map<Long, RollingHistogram> menuItems = new ConcurrentHashMap<>();
+
+        private CafePrepStats(int windowDays) {
+            this.cafe = new RollingHistogram(windowDays);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.BookingGridDayDTO;
+import com.digitalcafe.dto.BookingSlotDTO;
+import com.digitalcafe.dto.TableDTO;
+import com.digitalcafe.event.BookingChangedEvent;
+import com.digitalcafe.model.TableBooking;
+import com.digitalcafe.repository.CafeTableRepository;
+import com.digitalcafe.repository.TableBookingRepository;
+import com.digitalcafe.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory booking intervals per cafe and day, for table availability searches.
+ *
+ * A day is loaded with one query on first use and kept in a size-bounded LRU; each table holds
+ * its bookings as [start, end) minute intervals ordered by start, so a free/busy check walks back
+ * from the requested end only as far as the longest booking of the day. Committed booking changes
+ * go out on the {@link BookingChangeBus} and patch loaded days on every node it reaches. The
+ * default bus only reaches this node, so all days are also dropped periodically to pick up
+ * bookings made on other nodes, as well as table changes; without a shared bus, other nodes'
+ * bookings can be missing from searches for up to that interval. Writes never trust the index:
+ * createBooking re-checks conflicts against the database. Missing days of a range are loaded
+ * with one query.
+ */
+@Service
+@Slf4j
+public class TableAvailabilityIndex {
+
+    public static final Set<TableBooking.BookingStatus> BLOCKING_STATUSES =
+            EnumSet.of(TableBooking.BookingStatus.PENDING, TableBooking.BookingStatus.CONFIRMED);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final TableBookingRepository bookingRepository;
+    private final CafeTableRepository tableRepository;
+    private final BookingChangeBus bookingChangeBus;
+    private final int defaultDurationMinutes;
+    private final LruCache<CafeDay, DaySchedule> days;
+    private final LruCache<Long, List<TableDTO>> tables;
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public TableAvailabilityIndex(TableBookingRepository bookingRepository,
+                                  CafeTableRepository tableRepository,
+                                  BookingChangeBus bookingChangeBus,
+                                  @Value("${app.bookings.default-duration-minutes:90}") int defaultDurationMinutes,
+                                  @Value("${app.bookings.index-max-days:5000}") int maxDays) {
+        this.bookingRepository = bookingRepository;
+        this.tableRepository = tableRepository;
+        this.bookingChangeBus = bookingChangeBus;
+        this.defaultDurationMinutes = Math.max(1, defaultDurationMinutes);
+        this.days = new LruCache<>(maxDays);
+        this.tables = new LruCache<>(maxDays);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        bookingChangeBus.subscribe(this::apply);
+    }
+
+    // Bookings without a recorded duration hold their table for the default duration
+    public int durationOf(Integer durationMinutes) {
+        return durationMinutes != null ? durationMinutes : defaultDurationMinutes;
+    }
+
+    /**
+     * Bookable tables of the cafe seating at least the given guests that are free for the whole
+     * period, smallest capacity first.
+     */
+    public List<TableDTO> findFreeTables(Long cafeId, LocalDateTime start, int durationMinutes, int guests) {
+        List<TableDTO> candidates = new ArrayList<>();
+        for (TableDTO table : tablesOf(cafeId)) {
+            if (table.getCapacity() >= guests) {
+                candidates.add(table);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Period period = new Period(cafeId, start, durationMinutes);
+        List<TableDTO> free = new ArrayList<>();
+        synchronized (versionOf(cafeId)) {
+            for (TableDTO table : candidates) {
+                if (period.isFree(table.getId())) {
+                    free.add(table);
+                }
+            }
+        }
+        return free;
+    }
+
+    public boolean isFree(Long cafeId, Long tableId, LocalDateTime start, int durationMinutes) {
+        Period period = new Period(cafeId, start, durationMinutes);
+        synchronized (versionOf(cafeId)) {
+            return period.isFree(tableId);
+        }
+    }
+
+    public List<TableDTO> bookableTables(Long cafeId) {
+        return tablesOf(cafeId);
+    }
+
+    /**
+     * Busy-slot bitmaps of the given tables for each day from..to, as described on BookingGridDTO.
+     * slotMinutes must divide a day.
+     */
+    public List<BookingGridDayDTO> busySlots(Long cafeId, List<TableDTO> tables, LocalDate from, LocalDate to,
+                                             int slotMinutes) {
+        Map<LocalDate, DaySchedule> schedules = schedulesOf(cafeId, from.minusDays(1), to);
+        int slots = MINUTES_PER_DAY / slotMinutes;
+        Base64.Encoder encoder = Base64.getEncoder();
+        List<BookingGridDayDTO> days = new ArrayList<>();
+        synchronized (versionOf(cafeId)) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                DaySchedule previousDay = schedules.get(date.minusDays(1));
+                DaySchedule day = schedules.get(date);
+                List<String> busy = new ArrayList<>(tables.size());
+                for (TableDTO table : tables) {
+                    byte[] bitmap = new byte[(slots + 7) / 8];
+                    previousDay.markBusy(table.getId(), -MINUTES_PER_DAY, slotMinutes, bitmap);
+                    day.markBusy(table.getId(), 0, slotMinutes, bitmap);
+                    busy.add(encoder.encodeToString(bitmap));
+                }
+                days.add(new BookingGridDayDTO(date, busy));
+            }
+        }
+        return days;
+    }
+
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        bookingChangeBus.publish(event);
+    }
+
+    void apply(BookingChangedEvent event) {
+        AtomicLong version = versionOf(event.cafeId());
+        synchronized (version) {
+            version.incrementAndGet();
+            DaySchedule schedule = days.get(new CafeDay(event.cafeId(), event.bookingDate()));
+            if (schedule == null) {
+                return;
+            }
+            schedule.remove(event.bookingId());
+            if (BLOCKING_STATUSES.contains(event.status())) {
+                schedule.add(slot(event.bookingId(), event.tableId(), event.bookingTime(), event.durationMinutes()));
+            }
+        }
+    }
+
+    // Table status changed outside a booking (e.g. released by the sweeper)
+    public void forgetTables(Long cafeId) {
+        tables.remove(cafeId);
+    }
+
+    @Scheduled(initialDelayString = "${app.bookings.index-resync-ms:300000}",
+               fixedDelayString = "${app.bookings.index-resync-ms:300000}")
+    public void resync() {
+        // Bump every version so loads already in flight are not cached either
+        versions.values().forEach(version -> {
+            synchronized (version) {
+                version.incrementAndGet();
+            }
+        });
+        days.clear();
+        tables.clear();
+        log.debug("Table availability index cleared");
+    }
+
+    private List<TableDTO> tablesOf(Long cafeId) {
+        List<TableDTO> cafeTables = tables.get(cafeId);
+        if (cafeTables == null) {
+            cafeTables = List.copyOf(tableRepository.findBookableTables(cafeId));
+            tables.put(cafeId, cafeTables);
+        }
+        return cafeTables;
+    }
+
+    private DaySchedule scheduleOf(Long cafeId, LocalDate date) {
+        DaySchedule schedule = days.get(new CafeDay(cafeId, date));
+        return schedule != null ? schedule : schedulesOf(cafeId, date, date).get(date);
+    }
+
+    // Loads missing days outside the cafe monitor; a load that raced with a booking change is used
+    // once, not cached
+    private Map<LocalDate, DaySchedule> schedulesOf(Long cafeId, LocalDate from, LocalDate to) {
+        Map<LocalDate, DaySchedule> schedules = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DaySchedule schedule = days.get(new CafeDay(cafeId, date));
+            if (schedule != null) {
+                schedules.put(date, schedule);
+            } else {
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            return schedules;
+        }
+        AtomicLong version = versionOf(cafeId);
+        long observed = version.get();
+        Map<LocalDate, DaySchedule> loaded = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            if (!schedules.containsKey(date)) {
+                loaded.put(date, new DaySchedule());
+            }
+        }
+        for (BookingSlotDTO booking : bookingRepository.findSlotsByCafeIdAndDateBetween(cafeId, firstMissing,
+                lastMissing, BLOCKING_STATUSES)) {
+            DaySchedule schedule = loaded.get(booking.getBookingDate());
+            if (schedule != null) {
+                schedule.add(slot(booking.getBookingId(), booking.getTableId(), booking.getBookingTime(),
+                        booking.getDurationMinutes()));
+            }
+        }
+        synchronized (version) {
+            if (version.get() == observed) {
+                loaded.forEach((date, schedule) -> days.put(new CafeDay(cafeId, date), schedule));
+            }
+        }
+        schedules.putAll(loaded);
+        return schedules;
+    }
+
+    private Slot slot(Long bookingId, Long tableId, LocalTime time, Integer durationMinutes) {
+        int start = time.toSecondOfDay() / 60;
+        return new Slot(bookingId, tableId, start, start + durationOf(durationMinutes));
+    }
+
+    private AtomicLong versionOf(Long cafeId) {
+        return versions.computeIfAbsent(cafeId, id -> new AtomicLong());
+    }
+
+    private record CafeDay(Long cafeId, LocalDate date) {
+    }
+
+    // Minutes are relative to the start of the booking day and may run past midnight
+    private record Slot(Long bookingId, Long tableId, int start, int end) {
+    }
+
+    /**
+     * A requested period with the schedules it can collide with: its own day, the day before
+     * (bookings running past midnight) and, for late periods, the day after.
+     */
+    private final class Period {
+        private final int start;
+        private final int end;
+        private final DaySchedule previousDay;
+        private final DaySchedule day;
+        private final DaySchedule nextDay;
+
+        private Period(Long cafeId, LocalDateTime start, int durationMinutes) {
+            LocalDate date = start.toLocalDate();
+            this.start = start.toLocalTime().toSecondOfDay() / 60;
+            this.end = this.start + durationMinutes;
+            this.previousDay = scheduleOf(cafeId, date.minusDays(1));
+            this.day = scheduleOf(cafeId, date);
+            this.nextDay = end > MINUTES_PER_DAY ? scheduleOf(cafeId, date.plusDays(1)) : null;
+        }
+
+        // Caller holds the cafe monitor
+        private boolean isFree(Long tableId) {
+            return !day.overlaps(tableId, start, end)
+                    && !previousDay.overlaps(tableId, start + MINUTES_PER_DAY, end + MINUTES_PER_DAY)
+                    && (nextDay == null || !nextDay.overlaps(tableId, start - MINUTES_PER_DAY, end - MINUTES_PER_DAY));
+        }
+    }
+
+    // Guarded by the cafe monitor once cached
+    private static final class DaySchedule {
+        private static final Comparator<Slot> BY_START =
+                Comparator.comparingInt(Slot::start).thenComparing(Slot::bookingId);
+
+        private final Map<Long, NavigableSet<Slot>> byTable = new HashMap<>();
+        private final Map<Long, Slot> byBooking = new HashMap<>();
+        // Longest booking ever added; no slot starting earlier than this before a period can reach it
+        private int longest;
+
+        private void add(Slot slot) {
+            byTable.computeIfAbsent(slot.tableId(), id -> new TreeSet<>(BY_START)).add(slot);
+            byBooking.put(slot.bookingId(), slot);
+            longest = Math.max(longest, slot.end() - slot.start());
+        }
+
+        private void remove(Long bookingId) {
+            Slot slot = byBooking.remove(bookingId);
+            if (slot != null) {
+                byTable.get(slot.tableId()).remove(slot);
+            }
+        }
+
+        // Sets the bit of every slot a booking of the table covers, with minutes shifted by offset
+        private void markBusy(Long tableId, int offset, int slotMinutes, byte[] bitmap) {
+            NavigableSet<Slot> slots = byTable.get(tableId);
+            if (slots == null) {
+                return;
+            }
+            int slotCount = MINUTES_PER_DAY / slotMinutes;
+            for (Slot slot : slots) {
+                int first = Math.max(0, slot.start() + offset) / slotMinutes;
+                int last = Math.min(slotCount, (slot.end() + offset + slotMinutes - 1) / slotMinutes);
+                for (int i = first; i < last; i++) {
+                    bitmap[i / 8] |= (byte) (1 << (i % 8));
+                }
+            }
+        }
+
+        private boolean overlaps(Long tableId, int start, int end) {
+            NavigableSet<Slot> slots = byTable.get(tableId);
+            if (slots == null) {
+                return false;
+            }
+            // Walk back from the last slot starting before the period ends
+            for (Slot slot : slots.headSet(new Slot(Long.MIN_VALUE, tableId, end, end), false).descendingSet()) {
+                if (slot.end() > start) {
+                    return true;
+                }
+                if (slot.start() + longest <= start) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
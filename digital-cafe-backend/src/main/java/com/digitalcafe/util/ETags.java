@@ -0,0 +1,32 @@
+package com.digitalcafe.util;
+
+/**
+ * Helpers for strong ETags on conditional GETs.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // True when an If-None-Match header lists the given ETag (weak prefixes are ignored) or is "*"
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Distinct tag for another encoding of the same content, e.g. "abc" -> "abc-gzip"
+    public static String variant(String etag, String suffix) {
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+}
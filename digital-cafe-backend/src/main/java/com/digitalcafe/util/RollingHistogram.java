@@ -0,0 +1,117 @@
+package com.digitalcafe.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Fixed-memory duration histogram over a rolling window of whole days.
+ *
+ * Values (in seconds) fall into log-linear buckets: exact below 16, then eight sub-buckets per
+ * power of two, so any reported percentile is within about 6% of the true value. Each day of the
+ * window has its own slot that is reset when the ring wraps, and snapshots merge the live slots,
+ * so reads cost O(window x buckets) regardless of how many samples were recorded.
+ */
+public class RollingHistogram {
+
+    private static final int LINEAR_LIMIT = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 20;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    public record Snapshot(long count, double mean, long p50, long p90, long p99) {
+    }
+
+    private final Slot[] slots;
+
+    public RollingHistogram(int windowDays) {
+        this.slots = new Slot[Math.max(1, windowDays)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public synchronized void record(long seconds, LocalDate day) {
+        long epochDay = day.toEpochDay();
+        Slot slot = slots[(int) Math.floorMod(epochDay, (long) slots.length)];
+        if (slot.epochDay > epochDay) {
+            // A newer day already owns this slot; the sample has left the window
+            return;
+        }
+        if (slot.epochDay < epochDay) {
+            slot.reset(epochDay);
+        }
+        long value = Math.max(0, Math.min(seconds, MAX_VALUE));
+        slot.counts[bucketIndex(value)]++;
+        slot.count++;
+        slot.sum += value;
+    }
+
+    public synchronized Snapshot snapshot(LocalDate today) {
+        long oldest = today.toEpochDay() - slots.length + 1;
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        for (Slot slot : slots) {
+            if (slot.count == 0 || slot.epochDay < oldest) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += slot.counts[i];
+            }
+            count += slot.count;
+            sum += slot.sum;
+        }
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0);
+        }
+        return new Snapshot(count, (double) sum / count,
+                percentile(merged, count, 0.50), percentile(merged, count, 0.90), percentile(merged, count, 0.99));
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return bucketMidpoint(i);
+            }
+        }
+        return bucketMidpoint(counts.length - 1);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketMidpoint(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width / 2;
+    }
+
+    private static final class Slot {
+        private long epochDay = Long.MIN_VALUE;
+        private final long[] counts = new long[BUCKET_COUNT];
+        private long count;
+        private long sum;
+
+        private void reset(long day) {
+            epochDay = day;
+            Arrays.fill(counts, 0);
+            count = 0;
+            sum = 0;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.digitalcafe.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans Server-Sent Event frames out to subscribers grouped by key (a cafe id for the feeds).
+ *
+ * Every subscriber has its own bounded queue of pending frames, drained by at most one writer
+ * at a time on a virtual thread, so a client that stops reading blocks only its own connection.
+ * A subscriber whose queue fills up has fallen too far behind and is dropped; its client
+ * reconnects and starts again from the current state.
+ */
+@Slf4j
+public class SseFanout {
+
+    private final long emitterTimeoutMillis;
+    private final int maxPendingFrames;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+
+    public SseFanout(String name, long emitterTimeoutMillis, int maxPendingFrames) {
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxPendingFrames = Math.max(1, maxPendingFrames);
+        this.writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    /**
+     * Opens a stream for the key. The first event is queued before any broadcast can reach the
+     * subscriber, so it is always the first thing the client sees.
+     */
+    public SseEmitter subscribe(Long key, SseEmitter.SseEventBuilder firstEvent) {
+        return subscribe(key, firstEvent, () -> { });
+    }
+
+    // onClosed runs once, when the subscriber leaves for any reason other than shutdown
+    public SseEmitter subscribe(Long key, SseEmitter.SseEventBuilder firstEvent, Runnable onClosed) {
+        SseEmitter emitter = createEmitter(emitterTimeoutMillis);
+        Set<Subscriber> group = subscribers.computeIfAbsent(key, id -> ConcurrentHashMap.newKeySet());
+        Subscriber subscriber = new Subscriber(emitter, group, onClosed);
+        emitter.onCompletion(subscriber::leave);
+        emitter.onTimeout(subscriber::leave);
+        emitter.onError(error -> subscriber.leave());
+        subscriber.offer(firstEvent.build());
+        group.add(subscriber);
+        if (subscriber.closed.get()) {
+            // Failed before it joined the group; leave now so onClosed still runs
+            subscriber.leave();
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount(Long key) {
+        Set<Subscriber> group = subscribers.get(key);
+        return group != null ? group.size() : 0;
+    }
+
+    public Set<Long> keys() {
+        return subscribers.keySet();
+    }
+
+    public void broadcast(Long key, SseEmitter.SseEventBuilder event) {
+        Set<Subscriber> group = subscribers.get(key);
+        if (group == null || group.isEmpty()) {
+            return;
+        }
+        // Build the frame once; the same pre-serialized parts are queued for every subscriber
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = event.build();
+        group.forEach(subscriber -> subscriber.offer(frame));
+    }
+
+    public void broadcastToAll(SseEmitter.SseEventBuilder event) {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = event.build();
+        subscribers.values().forEach(group -> group.forEach(subscriber -> subscriber.offer(frame)));
+    }
+
+    public void shutdown() {
+        subscribers.values().forEach(group -> group.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        writers.shutdownNow();
+    }
+
+    // Tests substitute emitters that stand in for fast and stalled clients
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Subscriber> group;
+        private final Runnable onClosed;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<Subscriber> group, Runnable onClosed) {
+            this.emitter = emitter;
+            this.group = group;
+            this.onClosed = onClosed;
+            this.pending = new ArrayBlockingQueue<>(maxPendingFrames);
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!pending.offer(frame)) {
+                log.debug("Dropping SSE subscriber with {} frames pending", maxPendingFrames);
+                close(null);
+                return;
+            }
+            scheduleWrite();
+        }
+
+        private void scheduleWrite() {
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; shutdown() completes every emitter itself
+                    writing.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                while (!closed.get() && (frame = pending.poll()) != null) {
+                    emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+            } finally {
+                writing.set(false);
+            }
+            // A frame queued after the last poll but before the flag was cleared still gets written
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+
+        private void leave() {
+            if (group.remove(this)) {
+                onClosed.run();
+            }
+        }
+
+        // Completing takes the emitter's write lock, so it runs on a writer of its own
+        private void close(Throwable cause) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            leave();
+            pending.clear();
+            try {
+                writers.execute(() -> {
+                    if (cause != null) {
+                        emitter.completeWithError(cause);
+                    } else {
+                        emitter.complete();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down, as above
+            }
+        }
+    }
+}
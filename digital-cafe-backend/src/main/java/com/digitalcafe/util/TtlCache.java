@@ -0,0 +1,54 @@
+package com.digitalcafe.util;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds one lazily computed value for a fixed time-to-live.
+ *
+ * Refresh is single-flight: when the value expires, the first caller recomputes it while
+ * concurrent callers wait for that result instead of running the loader themselves.
+ */
+public class TtlCache<T> {
+
+    private record Entry<T>(T value, long expiresAtNanos) {
+    }
+
+    private final Supplier<T> loader;
+    private final long ttlNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Entry<T> entry;
+
+    public TtlCache(Duration ttl, Supplier<T> loader) {
+        this.loader = loader;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public T get() {
+        Entry<T> current = entry;
+        if (isFresh(current)) {
+            return current.value();
+        }
+        refreshLock.lock();
+        try {
+            current = entry;
+            if (isFresh(current)) {
+                return current.value();
+            }
+            T value = loader.get();
+            entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+            return value;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        entry = null;
+    }
+
+    private boolean isFresh(Entry<T> current) {
+        return current != null && current.expiresAtNanos() - System.nanoTime() > 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.digitalcafe.config;
+
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.UserRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// EventSource clients authenticate with a short-lived stream token in the query string
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class StreamTokenAuthenticationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void streamTokensOpenStreamsOnlyAndLoginTokensNeverTravelInUrls() throws Exception {
+        Cafe cafe = testData.cafe();
+        User chef = testData.user(User.Role.CHEF);
+        chef.setCreatedBy(cafe.getOwner());
+        userRepository.save(chef);
+        String loginToken = jwtUtil.generateToken(chef.getUsername(), chef.getRole().name(), chef.getId());
+
+        mockMvc.perform(post("/api/orders/stream-token").header("Authorization", "Bearer " + loginToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+
+        String streamToken = jwtUtil.generateStreamToken(chef.getUsername());
+        mockMvc.perform(get("/api/orders/cafe/{cafeId}/stream", cafe.getId()).param("access_token", streamToken))
+                .andExpect(request().asyncStarted());
+
+        mockMvc.perform(get("/api/orders/cafe/{cafeId}/stream", cafe.getId()).param("access_token", loginToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders").header("Authorization", "Bearer " + streamToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders").param("access_token", streamToken))
+                .andExpect(status().isForbidden());
+    }
+
+    // Staff see the queues of the cafes they work at, owners of the cafes they own, admins all
+    @Test
+    void streamsOpenOnlyForStaffOfTheCafe() throws Exception {
+        Cafe cafe = testData.cafe();
+        User outsider = testData.user(User.Role.CHEF);
+        outsider.setCreatedBy(testData.cafe().getOwner());
+        userRepository.save(outsider);
+
+        mockMvc.perform(stream(cafe, cafe.getOwner())).andExpect(request().asyncStarted());
+        mockMvc.perform(stream(cafe, testData.user(User.Role.ADMIN))).andExpect(request().asyncStarted());
+        mockMvc.perform(stream(cafe, outsider)).andExpect(status().isForbidden());
+        mockMvc.perform(stream(cafe, testData.cafe().getOwner())).andExpect(status().isForbidden());
+        mockMvc.perform(stream(cafe, testData.user(User.Role.CUSTOMER))).andExpect(status().isForbidden());
+    }
+
+    private MockHttpServletRequestBuilder stream(Cafe cafe, User user) {
+        return get("/api/orders/cafe/{cafeId}/stream", cafe.getId())
+                .param("access_token", jwtUtil.generateStreamToken(user.getUsername()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.digitalcafe.controller;
+
+import com.digitalcafe.config.JwtUtil;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.MenuItemRepository;
+import com.digitalcafe.repository.UserRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Menus are public, but only staff of the item's cafe may change its stock
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class MenuStockControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void stockChangesOnlyForStaffOfTheItemsCafe() throws Exception {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", 5);
+        User chef = testData.user(User.Role.CHEF);
+        chef.setCreatedBy(cafe.getOwner());
+        userRepository.save(chef);
+        User outsider = testData.user(User.Role.CHEF);
+        outsider.setCreatedBy(testData.cafe().getOwner());
+        userRepository.save(outsider);
+
+        mockMvc.perform(updateStock(item, null, 0)).andExpect(status().isForbidden());
+        mockMvc.perform(updateStock(item, testData.user(User.Role.CUSTOMER), 0)).andExpect(status().isForbidden());
+        mockMvc.perform(updateStock(item, testData.user(User.Role.WAITER), 0)).andExpect(status().isForbidden());
+        mockMvc.perform(updateStock(item, outsider, 0)).andExpect(status().isForbidden());
+        mockMvc.perform(updateStock(item, testData.cafe().getOwner(), 0)).andExpect(status().isForbidden());
+        assertEquals(5, menuItemRepository.findById(item.getId()).orElseThrow().getStockQuantity());
+
+        mockMvc.perform(updateStock(item, chef, 8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockQuantity").value(8));
+        mockMvc.perform(updateStock(item, cafe.getOwner(), 9)).andExpect(status().isOk());
+        mockMvc.perform(updateStock(item, testData.user(User.Role.ADMIN), 10)).andExpect(status().isOk());
+        assertEquals(10, menuItemRepository.findById(item.getId()).orElseThrow().getStockQuantity());
+    }
+
+    private MockHttpServletRequestBuilder updateStock(MenuItem item, User user, int stockQuantity) {
+        MockHttpServletRequestBuilder request = put("/api/menu-items/{id}/stock", item.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stockQuantity\":" + stockQuantity + "}");
+        return user == null ? request : request.header("Authorization",
+                "Bearer " + jwtUtil.generateToken(user.getUsername(), user.getRole().name(), user.getId()));
+    }
+}
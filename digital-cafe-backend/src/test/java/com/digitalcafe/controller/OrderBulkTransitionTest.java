@@ -0,0 +1,87 @@
+package com.digitalcafe.controller;
+
+import com.digitalcafe.config.JwtUtil;
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.service.OrderService;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The acting chef or waiter is whoever is signed in, whatever the request body says
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class OrderBulkTransitionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void bulkTransitionsActAsTheSignedInStaffMember() throws Exception {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        OrderDTO order = orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY",
+                null, List.of(new OrderItemRequestDTO(item.getId(), 1, null))));
+        User chef = testData.user(User.Role.CHEF);
+        User otherChef = testData.user(User.Role.CHEF);
+        String body = "{\"orderIds\":[" + order.getId() + "],\"chefId\":" + otherChef.getId() + "}";
+
+        mockMvc.perform(bulk("/api/orders/bulk/start-preparing", testData.user(User.Role.WAITER), body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(bulk("/api/orders/bulk/start-preparing", chef, body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded[0]").value(order.getId()));
+
+        Order preparing = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.PREPARING, preparing.getStatus());
+        assertEquals(chef.getId(), preparing.getPreparedBy().getId());
+
+        // Only the chef preparing an order may mark it ready
+        mockMvc.perform(bulk("/api/orders/bulk/mark-ready", otherChef, body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").isEmpty());
+        mockMvc.perform(bulk("/api/orders/bulk/mark-ready", chef, body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded[0]").value(order.getId()));
+    }
+
+    private MockHttpServletRequestBuilder bulk(String path, User user, String body) {
+        return post(path)
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(user.getUsername(), user.getRole().name(), user.getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
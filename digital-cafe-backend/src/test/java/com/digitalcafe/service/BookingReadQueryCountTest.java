@@ -0,0 +1,79 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.BookingDTO;
+import com.digitalcafe.dto.BookingRequestDTO;
+import com.digitalcafe.dto.CursorPageDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.CafeTable;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.UserRepository;
+import com.digitalcafe.support.StatementCounter;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Booking listings must not load customer, cafe or table per booking, however many a page holds
+@SpringBootTest
+@Import({TestData.class, StatementCounter.class})
+class BookingReadQueryCountTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void bookingPagesUseAFixedNumberOfStatements() {
+        Cafe cafe = testData.cafe();
+        User customer = testData.user(User.Role.CUSTOMER);
+        customer.setEmailVerified(true);
+        customer.setProfileCompleted(true);
+        userRepository.save(customer);
+        for (int t = 0; t < 5; t++) {
+            CafeTable table = testData.table(cafe);
+            for (int d = 1; d <= 5; d++) {
+                bookingService.createBooking(customer.getUsername(), new BookingRequestDTO(table.getId(),
+                        LocalDate.now().plusDays(d).atTime(12 + t, 0), 2, 60, null));
+            }
+        }
+
+        AtomicReference<CursorPageDTO<BookingDTO>> first = new AtomicReference<>();
+        long firstStatements = statementCounter.count(() ->
+                first.set(bookingService.getBookingsByCafe(cafe.getId(), null, null, null, null, 20)));
+        assertEquals(20, first.get().getItems().size());
+        assertTrue(first.get().getHasMore());
+        assertTrue(first.get().getItems().stream().allMatch(booking -> booking.getTableNumber() != null
+                && customer.getUsername().equals(booking.getCustomerName())));
+        assertEquals(1, firstStatements);
+
+        AtomicReference<CursorPageDTO<BookingDTO>> second = new AtomicReference<>();
+        long secondStatements = statementCounter.count(() -> second.set(bookingService.getBookingsByCafe(
+                cafe.getId(), null, null, null, first.get().getNextCursor(), 20)));
+        assertEquals(5, second.get().getItems().size());
+        assertFalse(second.get().getHasMore());
+        assertEquals(1, secondStatements);
+
+        // The customer lookup, then the page
+        AtomicReference<CursorPageDTO<BookingDTO>> mine = new AtomicReference<>();
+        long customerStatements = statementCounter.count(() -> mine.set(bookingService.getBookingsByCustomer(
+                customer.getUsername(), null, null, null, null, 20)));
+        assertEquals(20, mine.get().getItems().size());
+        assertEquals(2, customerStatements);
+    }
+}
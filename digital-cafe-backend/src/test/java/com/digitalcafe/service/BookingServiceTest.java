@@ -0,0 +1,94 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.BookingRequestDTO;
+import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.model.CafeTable;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.TableBookingRepository;
+import com.digitalcafe.repository.UserRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Import(TestData.class)
+class BookingServiceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TableBookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestData testData;
+
+    // Overlapping requests for one table race through createBooking; the table row lock lets one win
+    @Test
+    void concurrentOverlappingBookingsOfATableAdmitExactlyOne() throws Exception {
+        CafeTable table = testData.table(testData.cafe());
+        LocalDateTime evening = LocalDate.now().plusDays(2).atTime(19, 0);
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            customers.add(bookingCustomer());
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(customers.size());
+        List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < customers.size(); i++) {
+            User customer = customers.get(i);
+            // Starts spread over the first hour, so every pair overlaps
+            LocalDateTime requested = evening.plusMinutes(3L * i);
+            requests.add(clients.submit(() -> {
+                start.await();
+                try {
+                    bookingService.createBooking(customer.getUsername(),
+                            new BookingRequestDTO(table.getId(), requested, 2, 90, null));
+                    booked.incrementAndGet();
+                } catch (BadRequestException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> request : requests) {
+            request.get(60, TimeUnit.SECONDS);
+        }
+        clients.shutdown();
+
+        assertEquals(1, booked.get());
+        assertEquals(customers.size() - 1, refused.get());
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getTable().getId().equals(table.getId()))
+                .count());
+    }
+
+    private User bookingCustomer() {
+        User customer = testData.user(User.Role.CUSTOMER);
+        customer.setEmailVerified(true);
+        customer.setProfileCompleted(true);
+        return userRepository.save(customer);
+    }
+}
@@ -0,0 +1,234 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.dto.OwnerDashboardDTO;
+import com.digitalcafe.dto.RevenueDataDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.Category;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.support.TestData;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@Import(TestData.class)
+@Slf4j
+class DashboardServiceTest {
+
+    // Days before today the seeded orders are moved to; some fall outside the month or the chart
+    private static final int[] DAYS_AGO = {0, 1, 3, 6, 12, 35};
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    // Sized by -Ddashboard.benchmark.orders; the default keeps the suite fast
+    @Test
+    void ownerDashboardTotalsMatchTheOrdersTheyCount() {
+        int orderCount = Integer.getInteger("dashboard.benchmark.orders", 60);
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        LocalDate today = LocalDate.now();
+
+        BigDecimal expectedTodayRevenue = BigDecimal.ZERO;
+        long expectedTodayOrders = 0;
+        for (int i = 0; i < orderCount; i++) {
+            int daysAgo = DAYS_AGO[i % DAYS_AGO.length];
+            OrderDTO order = placeOrder(cafe, customer, item, i % 3 + 1, daysAgo);
+            // Cancelled orders still count towards revenue, as they always have on this dashboard
+            if (i % 7 == 0) {
+                orderService.cancelOrder(order.getId(), "test");
+            }
+            if (daysAgo == 0) {
+                expectedTodayRevenue = expectedTodayRevenue.add(order.getTotalAmount());
+                expectedTodayOrders++;
+            }
+        }
+        // The increments counted every order on the day it was placed; rebuild from the backdated rows
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        LocalDate oldest = today.minusDays(DAYS_AGO[DAYS_AGO.length - 1]);
+        dailyStatsService.rebuild(cafe.getId(), oldest.isBefore(startOfMonth) ? oldest : startOfMonth, today);
+
+        OwnerDashboardDTO dashboard = dashboardService.getOwnerDashboard(cafe.getOwner().getId());
+
+        // The per-order sums the dashboard used to compute itself
+        long started = System.nanoTime();
+        BigDecimal perOrderMonthly = sum(orderRepository.findByCafeIdAndCreatedAtAfter(
+                cafe.getId(), startOfMonth.atStartOfDay()));
+        BigDecimal[] perOrderChart = new BigDecimal[7];
+        for (int i = 6; i >= 0; i--) {
+            LocalDateTime day = today.minusDays(i).atStartOfDay();
+            perOrderChart[6 - i] = sum(orderRepository.findByCafeIdAndCreatedAtBetween(cafe.getId(), day, day.plusDays(1)));
+        }
+        long perOrderMicros = (System.nanoTime() - started) / 1_000;
+
+        started = System.nanoTime();
+        dailyStatsService.getDailyTotals(cafe.getId(), oldest.isBefore(startOfMonth) ? oldest : startOfMonth, today);
+        long rollupMicros = (System.nanoTime() - started) / 1_000;
+        log.info("Owner dashboard revenue over {} orders: per-order sums {} us, daily rollup {} us",
+                orderCount, perOrderMicros, rollupMicros);
+
+        assertEquals(expectedTodayOrders, dashboard.getTodayOrders());
+        assertEquals(0, expectedTodayRevenue.compareTo(dashboard.getTodayRevenue()));
+        assertEquals(0, perOrderChart[6].compareTo(dashboard.getTodayRevenue()));
+        assertEquals(0, perOrderMonthly.compareTo(dashboard.getMonthlyRevenue()));
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
+        List<RevenueDataDTO> chart = dashboard.getRevenueChart();
+        assertEquals(7, chart.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(today.minusDays(6 - i).format(formatter), chart.get(i).getDate());
+            assertEquals(0, perOrderChart[i].compareTo(chart.get(i).getRevenue()));
+        }
+    }
+
+    @Test
+    void popularItemsRankSoldQuantitiesWithinEachWindow() {
+        Cafe cafe = testData.cafe();
+        Category category = testData.category();
+        MenuItem a = testData.menuItem(cafe, category, "2.00", null);
+        MenuItem b = testData.menuItem(cafe, category, "2.00", null);
+        MenuItem c = testData.menuItem(cafe, category, "2.00", null);
+        MenuItem d = testData.menuItem(cafe, category, "2.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        Long ownerId = cafe.getOwner().getId();
+
+        placeOrder(cafe, customer, a, 3, 0);
+        placeOrder(cafe, customer, b, 1, 0);
+        // Last day of WEEK, first day outside it, last day of MONTH, first day outside it
+        placeOrder(cafe, customer, b, 4, 6);
+        placeOrder(cafe, customer, c, 10, 7);
+        placeOrder(cafe, customer, d, 2, 29);
+        placeOrder(cafe, customer, a, 20, 30);
+        orderService.cancelOrder(placeOrder(cafe, customer, c, 50, 6).getId(), "test");
+        LocalDate today = LocalDate.now();
+        dailyStatsService.rebuild(cafe.getId(), today.minusDays(30), today);
+
+        assertEquals(List.of(sold(a, 3), sold(b, 1)), ranking(ownerId, "TODAY"));
+        assertEquals(List.of(sold(b, 5), sold(a, 3)), ranking(ownerId, "WEEK"));
+        assertEquals(List.of(sold(c, 10), sold(b, 5), sold(a, 3), sold(d, 2)), ranking(ownerId, "MONTH"));
+        assertEquals(List.of(sold(c, 10), sold(b, 5)),
+                dashboardService.getOwnerPopularItems(ownerId, "month", 2).stream()
+                        .map(item -> List.of(item.getMenuItemId(), item.getOrderCount())).toList());
+
+        // Without a rebuild: the increments add a placed order and take it away again on cancel
+        OrderDTO late = placeOrder(cafe, customer, d, 5, 0);
+        assertEquals(List.of(sold(d, 5), sold(a, 3), sold(b, 1)), ranking(ownerId, "TODAY"));
+        orderService.cancelOrder(late.getId(), "test");
+        assertEquals(List.of(sold(a, 3), sold(b, 1)), ranking(ownerId, "TODAY"));
+    }
+
+    // Sized by -Ddashboard.benchmark.orders; the default keeps the suite fast
+    @Test
+    void popularItemsFromTheRollupMatchTheLiveQuery() {
+        int orderCount = Integer.getInteger("dashboard.benchmark.orders", 60);
+        Cafe cafe = testData.cafe();
+        Category category = testData.category();
+        List<MenuItem> items = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            items.add(testData.menuItem(cafe, category, "3.00", null));
+        }
+        User customer = testData.user(User.Role.CUSTOMER);
+        for (int i = 0; i < orderCount; i++) {
+            OrderDTO order = placeOrder(cafe, customer, items.get(i * i % items.size()), i % 4 + 1,
+                    DAYS_AGO[i % DAYS_AGO.length]);
+            if (i % 5 == 0) {
+                orderService.cancelOrder(order.getId(), "test");
+            }
+        }
+        LocalDate today = LocalDate.now();
+        dailyStatsService.rebuild(cafe.getId(), today.minusDays(DAYS_AGO[DAYS_AGO.length - 1]), today);
+
+        for (DashboardService.PopularItemsWindow window : DashboardService.PopularItemsWindow.values()) {
+            int days = switch (window) {
+                case TODAY -> 1;
+                case WEEK -> 7;
+                case MONTH -> 30;
+            };
+            LocalDateTime from = today.minusDays(days - 1L).atStartOfDay();
+            List<List<Long>> live = jdbcTemplate.query(
+                    "SELECT oi.menu_item_id, SUM(oi.quantity) FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                    "WHERE o.cafe_id = ? AND o.created_at >= ? AND o.status <> 'CANCELLED' " +
+                    "GROUP BY oi.menu_item_id ORDER BY SUM(oi.quantity) DESC, oi.menu_item_id LIMIT 5",
+                    (row, rowNum) -> List.of(row.getLong(1), row.getLong(2)), cafe.getId(), from);
+            List<List<Long>> rollup = jdbcTemplate.query(
+                    "SELECT menu_item_id, SUM(quantity) FROM cafe_daily_item_stats " +
+                    "WHERE cafe_id = ? AND stat_date BETWEEN ? AND ? GROUP BY menu_item_id " +
+                    "HAVING SUM(quantity) > 0 ORDER BY SUM(quantity) DESC, menu_item_id LIMIT 5",
+                    (row, rowNum) -> List.of(row.getLong(1), row.getLong(2)), cafe.getId(), from.toLocalDate(), today);
+            Long liveRows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                    "WHERE o.cafe_id = ? AND o.created_at >= ?", Long.class, cafe.getId(), from);
+            Long rollupRows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM cafe_daily_item_stats WHERE cafe_id = ? AND stat_date BETWEEN ? AND ?",
+                    Long.class, cafe.getId(), from.toLocalDate(), today);
+            // Rows read rather than wall time: H2 hands back cached results for repeated identical queries
+            log.info("Popular items {} over {} orders: live query reads {} rows, daily rollup reads {}",
+                    window, orderCount, liveRows, rollupRows);
+
+            assertFalse(live.isEmpty());
+            assertEquals(live, rollup);
+            assertEquals(live, ranking(cafe.getOwner().getId(), window.name()));
+        }
+    }
+
+    // Placed now, then moved back; never exactly midnight, which an inclusive day range would count twice
+    private OrderDTO placeOrder(Cafe cafe, User customer, MenuItem item, int quantity, int daysAgo) {
+        OrderDTO order = orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY",
+                null, List.of(new OrderItemRequestDTO(item.getId(), quantity, null))));
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?",
+                LocalDate.now().minusDays(daysAgo).atStartOfDay().plusMinutes(SEQUENCE.incrementAndGet() % 1000 + 1), order.getId());
+        return order;
+    }
+
+    private List<List<Long>> ranking(Long ownerId, String window) {
+        return dashboardService.getOwnerPopularItems(ownerId, window, null).stream()
+                .map(item -> List.of(item.getMenuItemId(), item.getOrderCount()))
+                .toList();
+    }
+
+    private static List<Long> sold(MenuItem item, long quantity) {
+        return List.of(item.getId(), quantity);
+    }
+
+    private static BigDecimal sum(List<Order> orders) {
+        return orders.stream().map(Order::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
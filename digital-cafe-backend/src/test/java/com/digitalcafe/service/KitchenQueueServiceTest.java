@@ -0,0 +1,168 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.dto.OrderSummaryDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.support.StatementCounter;
+import com.digitalcafe.support.TestData;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Import({TestData.class, StatementCounter.class})
+@Slf4j
+class KitchenQueueServiceTest {
+
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private TestData testData;
+
+    // A plain UPDATE stands in for a transition committed on another node, which raises no local event
+    @Test
+    void syncPicksUpTransitionsMadeWithoutLocalEvents() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "5.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        OrderDTO first = placeOrder(cafe, item, customer);
+        OrderDTO second = placeOrder(cafe, item, customer);
+        assertEquals(List.of(first.getId(), second.getId()), queuedIds(cafe));
+
+        jdbcTemplate.update("UPDATE orders SET status = 'PREPARING', updated_at = CURRENT_TIMESTAMP WHERE id = ?", first.getId());
+        jdbcTemplate.update("UPDATE orders SET status = 'COMPLETED', updated_at = CURRENT_TIMESTAMP WHERE id = ?", second.getId());
+        kitchenQueueService.syncChanges();
+
+        List<OrderSummaryDTO> queue = kitchenQueueService.getQueue(cafe.getId(), KitchenQueueService.ACTIVE_STATUSES);
+        assertEquals(1, queue.size());
+        assertEquals(first.getId(), queue.get(0).getId());
+        assertEquals("PREPARING", queue.get(0).getStatus());
+    }
+
+    @Test
+    void rebuildKeepsTransitionsAndDropsOrdersThatLeftTheQueue() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "5.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        OrderDTO kept = placeOrder(cafe, item, customer);
+        OrderDTO cancelled = placeOrder(cafe, item, customer);
+        orderService.cancelOrder(cancelled.getId(), "test");
+
+        kitchenQueueService.rebuild();
+
+        assertEquals(List.of(kept.getId()), queuedIds(cafe));
+    }
+
+    // Sized by -Dkitchen.benchmark.orders; the default keeps the suite fast
+    @Test
+    void queueReadsStayOffTheDatabaseWhileOrdersMove() throws Exception {
+        int orderCount = Integer.getInteger("kitchen.benchmark.orders", 150);
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "5.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            orderIds.add(placeOrder(cafe, item, customer).getId());
+        }
+        Set<Order.OrderStatus> chefQueue = EnumSet.of(Order.OrderStatus.PLACED, Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PREPARING);
+
+        // The per-request read the chef dashboard made before: entity query plus lazy loads per order
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long started = System.nanoTime();
+        long databaseStatements = statementCounter.count(() -> readOnly.executeWithoutResult(status ->
+                orderRepository.findByCafeIdAndStatusInOrderByCreatedAtAsc(cafe.getId(), List.copyOf(chefQueue))
+                        .forEach(order -> order.getCustomer().getUsername())));
+        long databaseMicros = (System.nanoTime() - started) / 1_000;
+
+        // Readers poll the queue while every other order moves to PREPARING
+        AtomicBoolean moving = new AtomicBoolean(true);
+        ExecutorService screens = Executors.newFixedThreadPool(4);
+        List<Future<List<Long>>> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(screens.submit(() -> {
+                List<Long> nanos = new ArrayList<>();
+                while (moving.get() || nanos.size() < 1_000) {
+                    long readStarted = System.nanoTime();
+                    kitchenQueueService.getQueue(cafe.getId(), chefQueue);
+                    nanos.add(System.nanoTime() - readStarted);
+                }
+                return nanos;
+            }));
+        }
+        for (int i = 0; i < orderCount; i += 2) {
+            jdbcTemplate.update("UPDATE orders SET status = 'PREPARING', updated_at = CURRENT_TIMESTAMP WHERE id = ?",
+                    orderIds.get(i));
+            kitchenQueueService.syncChanges();
+        }
+        moving.set(false);
+        List<Long> nanos = new ArrayList<>();
+        for (Future<List<Long>> reader : readers) {
+            nanos.addAll(reader.get(60, TimeUnit.SECONDS));
+        }
+        screens.shutdown();
+        Collections.sort(nanos);
+        long queueStatements = statementCounter.count(() -> kitchenQueueService.getQueue(cafe.getId(), chefQueue));
+        log.info("Chef queue of {} orders: database read {} statements in {} us; in-memory read {} statements, "
+                        + "p50 {} us, p99 {} us over {} reads during transitions",
+                orderCount, databaseStatements, databaseMicros, queueStatements,
+                nanos.get(nanos.size() / 2) / 1_000, nanos.get(nanos.size() * 99 / 100) / 1_000, nanos.size());
+
+        assertEquals(0, queueStatements);
+        List<OrderSummaryDTO> queue = kitchenQueueService.getQueue(cafe.getId(), chefQueue);
+        assertEquals(orderIds, queue.stream().map(OrderSummaryDTO::getId).toList());
+        assertEquals((orderCount + 1) / 2, kitchenQueueService.count(cafe.getId(), EnumSet.of(Order.OrderStatus.PREPARING)));
+    }
+
+    private OrderDTO placeOrder(Cafe cafe, MenuItem item, User customer) {
+        return orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY", null,
+                List.of(new OrderItemRequestDTO(item.getId(), 1, null))));
+    }
+
+    private List<Long> queuedIds(Cafe cafe) {
+        return kitchenQueueService.getQueue(cafe.getId(), KitchenQueueService.ACTIVE_STATUSES).stream()
+                .map(OrderSummaryDTO::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class MenuAvailabilityFeedServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MenuAvailabilityFeedService feedService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void oneClientCannotOpenMoreThanItsShareOfStreams() throws Exception {
+        Cafe cafe = testData.cafe();
+        testData.menuItem(cafe, testData.category(), "3.00", null);
+
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(stream(cafe, "10.0.0.1")).andExpect(request().asyncStarted());
+        }
+        mockMvc.perform(stream(cafe, "10.0.0.1")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(stream(cafe, "10.0.0.2")).andExpect(request().asyncStarted());
+        assertEquals(5, feedService.getSubscriberCount(cafe.getId()));
+    }
+
+    // A plain UPDATE stands in for a change committed on another node, which never reaches the local bus
+    @Test
+    void resyncPushesChangesThatNeverReachedTheBus() throws Exception {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "3.00", null);
+        MockHttpServletResponse response = mockMvc.perform(stream(cafe, "10.0.1.1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitEvents(response, 1);
+
+        jdbcTemplate.update("UPDATE menu_items SET available = FALSE WHERE id = ?", item.getId());
+        feedService.resync();
+
+        awaitEvents(response, 2);
+        // The only item went from available (bit 0 set) to unavailable
+        String events = response.getContentAsString();
+        int available = events.indexOf("\"bitmap\":\"AQ==\"");
+        assertTrue(available >= 0 && available < events.indexOf("\"bitmap\":\"AA==\""));
+    }
+
+    private static MockHttpServletRequestBuilder stream(Cafe cafe, String address) {
+        return get("/api/menu-items/cafe/{cafeId}/availability/stream", cafe.getId())
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                });
+    }
+
+    private static void awaitEvents(MockHttpServletResponse response, int events) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (count(response.getContentAsString(), "event:availability") < events && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(events, count(response.getContentAsString(), "event:availability"));
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + needle.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.MenuItemDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.Category;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.support.StatementCounter;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Menu item reads come from joined projections; none may load category or cafe per item
+@SpringBootTest
+@Import({TestData.class, StatementCounter.class})
+class MenuItemReadQueryCountTest {
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void menuItemReadsUseOneStatementWhateverTheNumberOfItems() {
+        Category category = testData.category();
+        Cafe first = testData.cafe();
+        Cafe second = testData.cafe();
+        MenuItem item = null;
+        for (int i = 0; i < 12; i++) {
+            item = testData.menuItem(i % 2 == 0 ? first : second, category, "2.50", null);
+        }
+        Long itemId = item.getId();
+
+        assertStatements(1, () -> menuItemService.getAllMenuItems(), items -> items.size() >= 12);
+        assertStatements(1, () -> menuItemService.getAvailableMenuItems(), items -> items.size() >= 12);
+        assertStatements(1, () -> menuItemService.getMenuItemsByCategory(category.getId()), items -> items.size() == 12);
+        assertStatements(1, () -> menuItemService.getMenuItemsByCafe(first.getId()), items -> items.size() == 6);
+        assertStatements(1, () -> List.of(menuItemService.getMenuItemById(itemId)),
+                items -> category.getName().equals(items.get(0).getCategoryName())
+                        && second.getName().equals(items.get(0).getCafeName()));
+    }
+
+    private void assertStatements(long expected, Supplier<List<MenuItemDTO>> read,
+                                  Predicate<List<MenuItemDTO>> check) {
+        AtomicReference<List<MenuItemDTO>> result = new AtomicReference<>();
+        long statements = statementCounter.count(() -> result.set(read.get()));
+        assertTrue(check.test(result.get()));
+        assertEquals(expected, statements);
+    }
+}
@@ -0,0 +1,152 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.MenuItemDTO;
+import com.digitalcafe.dto.MenuSearchDocumentDTO;
+import com.digitalcafe.event.MenuChangedEvent;
+import com.digitalcafe.repository.MenuItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class MenuSearchIndexTest {
+
+    private static final String[] WORDS = {"masala", "chai", "latte", "cold", "brew", "paneer", "tikka", "veg",
+            "sandwich", "chocolate", "brownie", "mango", "lassi", "filter", "coffee", "cheese", "garlic", "bread",
+            "spicy", "paratha", "mint", "lemonade", "hazelnut", "mocha", "butter", "croissant", "iced", "tea"};
+
+    private final MenuItemRepository repository = mock(MenuItemRepository.class);
+    private final MenuSearchIndex index = new MenuSearchIndex(repository, new InProcessMenuCacheInvalidationBus());
+
+    @AfterEach
+    void stopRebuilder() {
+        index.shutdown();
+    }
+
+    // Sized by -Dmenu.search.benchmark.items; the default keeps the suite fast
+    @Test
+    void buildsAndSearchesALargeCatalog() {
+        int itemCount = Integer.getInteger("menu.search.benchmark.items", 20_000);
+        List<MenuSearchDocumentDTO> documents = new ArrayList<>();
+        for (long id = 1; id <= itemCount; id++) {
+            documents.add(document(id, id % 500 + 1, WORDS[(int) (id % WORDS.length)] + " "
+                    + WORDS[(int) (id / WORDS.length % WORDS.length)] + " item" + id));
+        }
+        when(repository.findSearchDocuments()).thenReturn(documents);
+
+        long started = System.nanoTime();
+        index.rebuild();
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+        String[] queries = {"masala chai", "choco", "paner tika", "cold brew", "iced te", "hazlenut moca", "item77"};
+        // Warm up first, so the percentiles measure searching rather than class loading and compilation
+        for (int i = 0; i < 2_000; i++) {
+            index.search(queries[i % queries.length], null, null, null, null, null, null, 20);
+        }
+        long[] micros = new long[700];
+        for (int i = 0; i < micros.length; i++) {
+            long queryStarted = System.nanoTime();
+            index.search(queries[i % queries.length], null, null, null, null, null, null, 20);
+            micros[i] = (System.nanoTime() - queryStarted) / 1_000;
+        }
+        Arrays.sort(micros);
+        long p50 = micros[micros.length / 2];
+        log.info("Menu search over {} items: built in {} ms, search p50 {} us, p99 {} us",
+                itemCount, buildMillis, p50, micros[micros.length * 99 / 100]);
+        // The tail is left to the log: on a shared build machine it measures GC and neighbours
+        assertTrue(p50 < 10_000, "median search took " + p50 + " us");
+
+        List<MenuItemDTO> typo = index.search("paner tika", null, null, null, null, null, null, 20);
+        assertEquals(20, typo.size());
+        assertTrue(typo.stream().allMatch(item -> item.getName().contains("paneer") && item.getName().contains("tikka")));
+        assertEquals(77L, index.search("item77", null, null, null, null, null, null, 20).get(0).getId());
+    }
+
+    // The first load reads the old name but finishes after a later patch; it must not win
+    @Test
+    void olderItemReadDoesNotOverwriteANewerOne() throws Exception {
+        CountDownLatch slowReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowRead = new CountDownLatch(1);
+        when(repository.findSearchDocumentById(1L))
+                .thenAnswer(invocation -> {
+                    slowReadStarted.countDown();
+                    releaseSlowRead.await(5, TimeUnit.SECONDS);
+                    return Optional.of(document(1L, 1L, "espresso"));
+                })
+                .thenReturn(Optional.of(document(1L, 1L, "americano")));
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(
+                () -> index.onMenuChanged(MenuChangedEvent.forItem(1L, 1L)));
+        assertTrue(slowReadStarted.await(5, TimeUnit.SECONDS));
+        index.onMenuChanged(MenuChangedEvent.forItem(1L, 1L));
+        releaseSlowRead.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1L), ids(index.search("americano", null, null, null, null, null, null, 10)));
+        assertEquals(List.of(), ids(index.search("espresso", null, null, null, null, null, null, 10)));
+    }
+
+    // Each read of item 1 is overtaken by a patch of item 2, so the index is rebuilt instead
+    @Test
+    void patchThatKeepsLosingTheRaceFallsBackToARebuild() throws Exception {
+        when(repository.findSearchDocumentById(1L)).thenAnswer(invocation -> {
+            index.onMenuChanged(MenuChangedEvent.forItem(1L, 2L));
+            return Optional.of(document(1L, 1L, "espresso"));
+        });
+        when(repository.findSearchDocumentById(2L)).thenReturn(Optional.of(document(2L, 1L, "americano")));
+        when(repository.findSearchDocuments())
+                .thenReturn(List.of(document(1L, 1L, "espresso"), document(2L, 1L, "americano")));
+
+        index.onMenuChanged(MenuChangedEvent.forItem(1L, 1L));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (index.search("espresso", null, null, null, null, null, null, 10).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(1L), ids(index.search("espresso", null, null, null, null, null, null, 10)));
+        assertEquals(List.of(2L), ids(index.search("americano", null, null, null, null, null, null, 10)));
+    }
+
+    @Test
+    void changeToEveryCafeRebuildsOffThePublishingThread() throws Exception {
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(repository.findSearchDocuments()).thenAnswer(invocation -> {
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return List.of(document(1L, 1L, "filter coffee"));
+        });
+
+        long started = System.nanoTime();
+        index.onMenuChanged(MenuChangedEvent.allCafes());
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        releaseLoad.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (index.search("filter", null, null, null, null, null, null, 10).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(1L), ids(index.search("filter", null, null, null, null, null, null, 10)));
+    }
+
+    private static List<Long> ids(List<MenuItemDTO> items) {
+        return items.stream().map(MenuItemDTO::getId).toList();
+    }
+
+    private static MenuSearchDocumentDTO document(Long id, Long cafeId, String name) {
+        return new MenuSearchDocumentDTO(id, name, null, new BigDecimal("120.00"), 1L, "Beverages", cafeId,
+                "Cafe " + cafeId, "Pune", null, true, true);
+    }
+}
@@ -0,0 +1,120 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.exception.BadRequestException;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.MenuItemRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Import(TestData.class)
+class MenuStockServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void concurrentOrdersNeverSellMoreThanTheStock() throws Exception {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", 30);
+        User customer = testData.user(User.Role.CUSTOMER);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService customers = Executors.newFixedThreadPool(16);
+        List<Future<?>> orders = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            orders.add(customers.submit(() -> {
+                start.await();
+                try {
+                    placeOrder(cafe, item, customer);
+                    sold.incrementAndGet();
+                } catch (BadRequestException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> order : orders) {
+            order.get(60, TimeUnit.SECONDS);
+        }
+        customers.shutdown();
+
+        assertEquals(30, sold.get());
+        assertEquals(50, refused.get());
+        MenuItem soldOut = menuItemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(0, soldOut.getStockQuantity());
+        assertFalse(soldOut.getAvailable());
+    }
+
+    // Lines ordered while stock was untracked took nothing, so cancelling them must return nothing
+    @Test
+    void cancellationReturnsOnlyTheStockItsLinesTook() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        OrderDTO untracked = placeOrder(cafe, item, customer);
+
+        menuItemService.updateStock(item.getId(), 10);
+        OrderDTO tracked = placeOrder(cafe, item, customer);
+        assertEquals(9, stockOf(item));
+
+        orderService.cancelOrder(untracked.getId(), "test");
+        assertEquals(9, stockOf(item));
+        orderService.cancelOrder(tracked.getId(), "test");
+        assertEquals(10, stockOf(item));
+    }
+
+    // The stock went back on cancellation, so the order must not come back without it
+    @Test
+    void cancelledOrdersCannotBeReopened() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", 10);
+        OrderDTO order = placeOrder(cafe, item, testData.user(User.Role.CUSTOMER));
+        orderService.cancelOrder(order.getId(), "test");
+
+        assertThrows(BadRequestException.class, () -> orderService.updateOrderStatus(order.getId(), "PREPARING"));
+        assertEquals(10, stockOf(item));
+    }
+
+    private OrderDTO placeOrder(Cafe cafe, MenuItem item, User customer) {
+        return orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY", null,
+                List.of(new OrderItemRequestDTO(item.getId(), 1, null))));
+    }
+
+    private int stockOf(MenuItem item) {
+        return menuItemRepository.findById(item.getId()).orElseThrow().getStockQuantity();
+    }
+}
@@ -0,0 +1,58 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.repository.OrderNumberSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderNumberAllocatorTest {
+
+    @Autowired
+    private OrderNumberSequenceRepository sequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Two allocators stand in for two nodes sharing the sequence table
+    @Test
+    void concurrentNodesNeverHandOutTheSameNumber() throws Exception {
+        OrderNumberAllocator nodeA = new OrderNumberAllocator(sequenceRepository, transactionManager, 5);
+        OrderNumberAllocator nodeB = new OrderNumberAllocator(sequenceRepository, transactionManager, 5);
+        List<Long> cafeIds = List.of(900_001L, 900_002L, 900_003L);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<String>> numbers = new ArrayList<>();
+        try {
+            for (int i = 0; i < 600; i++) {
+                OrderNumberAllocator node = i % 2 == 0 ? nodeA : nodeB;
+                Long cafeId = cafeIds.get(i % cafeIds.size());
+                numbers.add(pool.submit(() -> node.nextOrderNumber(cafeId)));
+            }
+            Set<String> unique = new HashSet<>();
+            for (Future<String> number : numbers) {
+                assertTrue(unique.add(number.get()), "duplicate order number");
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (Long cafeId : cafeIds) {
+            long reserved = sequenceRepository.findById(cafeId).orElseThrow().getNextValue() - 1;
+            assertTrue(reserved >= 200, "cafe " + cafeId + " reserved only " + reserved);
+            assertEquals(0, reserved % 5);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.CursorPageDTO;
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.Category;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.User;
+import com.digitalcafe.support.StatementCounter;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Order reads must not issue per-order or per-item queries, however many orders a page holds
+@SpringBootTest
+@Import({TestData.class, StatementCounter.class})
+class OrderReadQueryCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void orderPageAndSingleOrderReadsUseAFixedNumberOfStatements() {
+        Cafe cafe = testData.cafe();
+        Category category = testData.category();
+        MenuItem coffee = testData.menuItem(cafe, category, "3.50", null);
+        MenuItem cake = testData.menuItem(cafe, category, "4.25", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        for (int i = 0; i < 25; i++) {
+            orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY", null,
+                    List.of(new OrderItemRequestDTO(coffee.getId(), 2, null),
+                            new OrderItemRequestDTO(cake.getId(), 1, null))));
+        }
+
+        AtomicReference<CursorPageDTO<OrderDTO>> page = new AtomicReference<>();
+        long pageStatements = statementCounter.count(() ->
+                page.set(orderService.getOrders(cafe.getId(), null, null, null, null, null, 20)));
+        assertEquals(20, page.get().getItems().size());
+        assertTrue(page.get().getHasMore());
+        assertTrue(page.get().getItems().stream().allMatch(order -> order.getOrderItems().size() == 2));
+        // One page query and one items query; the archive is not reached on a recent page
+        assertEquals(2, pageStatements);
+
+        Long orderId = page.get().getItems().get(0).getId();
+        AtomicReference<OrderDTO> order = new AtomicReference<>();
+        long singleStatements = statementCounter.count(() -> order.set(orderService.getOrderById(orderId)));
+        assertEquals(2, order.get().getOrderItems().size());
+        assertEquals(2, singleStatements);
+    }
+}
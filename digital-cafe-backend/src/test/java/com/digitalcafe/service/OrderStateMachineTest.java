@@ -0,0 +1,145 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.exception.ConflictException;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.Order;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(TestData.class)
+class OrderStateMachineTest {
+
+    // Below the connection pool size: every thread holds a connection while it waits for the others
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestData testData;
+
+    // Every thread has read the PLACED order before any of them writes; chefs race a cancellation
+    @Test
+    void racingTransitionsFromPlacedLetExactlyOneWin() throws Exception {
+        OrderDTO order = placeOrder();
+        List<User> chefs = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            chefs.add(testData.user(User.Role.CHEF));
+        }
+
+        Order current = race(order.getId(), (observed, i) -> i % 2 == 0
+                ? orderStateMachine.startPreparing(observed, chefs.get(i))
+                : orderStateMachine.cancel(observed, "race"));
+
+        assertTrue(current.getStatus() == Order.OrderStatus.PREPARING
+                || current.getStatus() == Order.OrderStatus.CANCELLED);
+    }
+
+    // The same with the order in PREPARING: the chef marking it ready races cancellations
+    @Test
+    void racingTransitionsFromPreparingLetExactlyOneWin() throws Exception {
+        User chef = testData.user(User.Role.CHEF);
+        OrderDTO order = placeOrder();
+        orderService.startPreparing(order.getId(), chef.getId());
+
+        Order current = race(order.getId(), (observed, i) -> i % 2 == 0
+                ? orderStateMachine.markReady(observed)
+                : orderStateMachine.cancel(observed, "race"));
+
+        assertTrue(current.getStatus() == Order.OrderStatus.READY
+                || current.getStatus() == Order.OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void cancellingAnOrderWithoutInstructionsRecordsOnlyTheReason() {
+        OrderDTO order = placeOrder();
+
+        orderService.cancelOrder(order.getId(), "customer left");
+
+        assertEquals("Cancelled: customer left",
+                orderRepository.findById(order.getId()).orElseThrow().getSpecialInstructions());
+    }
+
+    /**
+     * Runs one transition per thread against the same observed order and checks that exactly one
+     * applied, every other thread got a ConflictException, and the version went up by one.
+     */
+    private Order race(Long orderId, BiFunction<Order, Integer, Order> transition) throws Exception {
+        long initialVersion = orderRepository.findById(orderId).orElseThrow().getVersion();
+        CyclicBarrier allRead = new CyclicBarrier(THREADS);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService staff = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> attempts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            attempts.add(staff.submit(() -> {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    Order observed = orderRepository.findById(orderId).orElseThrow();
+                    try {
+                        allRead.await(10, TimeUnit.SECONDS);
+                        transition.apply(observed, thread);
+                        applied.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                return null;
+            }));
+        }
+        for (Future<?> attempt : attempts) {
+            attempt.get(60, TimeUnit.SECONDS);
+        }
+        staff.shutdown();
+
+        Order current = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(1, applied.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(initialVersion + 1, current.getVersion());
+        return current;
+    }
+
+    private OrderDTO placeOrder() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "4.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        return orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY", null,
+                List.of(new OrderItemRequestDTO(item.getId(), 1, null))));
+    }
+}
@@ -0,0 +1,92 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.dto.OrderDTO;
+import com.digitalcafe.dto.OrderItemRequestDTO;
+import com.digitalcafe.dto.OrderRequestDTO;
+import com.digitalcafe.exception.ConflictException;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.Payment;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.OrderRepository;
+import com.digitalcafe.repository.PaymentRepository;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(TestData.class)
+class PaymentArchiveTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void archivedOrdersRejectRefundsAndPendingPaymentsKeepOrdersLive() {
+        Cafe cafe = testData.cafe();
+        MenuItem item = testData.menuItem(cafe, testData.category(), "8.00", null);
+        User customer = testData.user(User.Role.CUSTOMER);
+        OrderDTO paid = placeOldCompletedOrder(cafe, item, customer);
+        OrderDTO awaitingPayment = placeOldCompletedOrder(cafe, item, customer);
+        Payment settled = savePayment(paid, customer, Payment.PaymentStatus.SUCCESS);
+        savePayment(awaitingPayment, customer, Payment.PaymentStatus.PENDING);
+
+        orderArchiveService.archiveOldOrders();
+
+        assertFalse(orderRepository.existsById(paid.getId()));
+        assertTrue(orderRepository.existsById(awaitingPayment.getId()));
+        assertEquals(paid.getId(), paymentService.getPaymentById(settled.getId()).getOrderId());
+        assertThrows(ConflictException.class, () -> paymentService.processRefund(settled.getId()));
+        assertEquals("SUCCESS", paymentService.getPaymentById(settled.getId()).getPaymentStatus());
+    }
+
+    private OrderDTO placeOldCompletedOrder(Cafe cafe, MenuItem item, User customer) {
+        OrderDTO order = orderService.createOrder(new OrderRequestDTO(customer.getId(), cafe.getId(), "TAKEAWAY", null,
+                List.of(new OrderItemRequestDTO(item.getId(), 1, null))));
+        jdbcTemplate.update("UPDATE orders SET status = 'COMPLETED', created_at = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(400), order.getId());
+        return order;
+    }
+
+    private Payment savePayment(OrderDTO order, User customer, Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setOrder(orderRepository.findById(order.getId()).orElseThrow());
+        payment.setCustomer(customer);
+        payment.setAmount(new BigDecimal("8.00"));
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+        payment.setPaymentStatus(status);
+        payment.setTransactionId(UUID.randomUUID().toString());
+        return paymentRepository.save(payment);
+    }
+}
@@ -0,0 +1,50 @@
+package com.digitalcafe.service;
+
+import com.digitalcafe.event.BookingChangedEvent;
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.CafeTable;
+import com.digitalcafe.model.TableBooking;
+import com.digitalcafe.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(TestData.class)
+class TableAvailabilityIndexTest {
+
+    @Autowired
+    private TableAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingChangeBus bookingChangeBus;
+
+    @Autowired
+    private TestData testData;
+
+    // A change arriving on the bus stands in for a booking committed on another node
+    @Test
+    void bookingsFromTheBusPatchLoadedDays() {
+        Cafe cafe = testData.cafe();
+        CafeTable table = testData.table(cafe);
+        LocalDate date = LocalDate.now().plusDays(3);
+        LocalDateTime evening = date.atTime(19, 0);
+        assertTrue(availabilityIndex.isFree(cafe.getId(), table.getId(), evening, 60));
+
+        bookingChangeBus.publish(new BookingChangedEvent(Long.MAX_VALUE, cafe.getId(), table.getId(), date,
+                LocalTime.of(18, 30), 90, TableBooking.BookingStatus.CONFIRMED));
+        assertFalse(availabilityIndex.isFree(cafe.getId(), table.getId(), evening, 60));
+
+        bookingChangeBus.publish(new BookingChangedEvent(Long.MAX_VALUE, cafe.getId(), table.getId(), date,
+                LocalTime.of(18, 30), 90, TableBooking.BookingStatus.CANCELLED));
+        assertTrue(availabilityIndex.isFree(cafe.getId(), table.getId(), evening, 60));
+    }
+}
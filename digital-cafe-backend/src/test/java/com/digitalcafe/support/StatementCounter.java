@@ -0,0 +1,25 @@
+package com.digitalcafe.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while a piece of code runs. Relies on
+ * hibernate.generate_statistics in the test properties.
+ */
+@TestComponent
+public class StatementCounter {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public long count(Runnable work) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        work.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
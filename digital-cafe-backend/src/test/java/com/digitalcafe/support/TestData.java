@@ -0,0 +1,86 @@
+package com.digitalcafe.support;
+
+import com.digitalcafe.model.Cafe;
+import com.digitalcafe.model.CafeTable;
+import com.digitalcafe.model.Category;
+import com.digitalcafe.model.MenuItem;
+import com.digitalcafe.model.User;
+import com.digitalcafe.repository.CafeRepository;
+import com.digitalcafe.repository.CafeTableRepository;
+import com.digitalcafe.repository.CategoryRepository;
+import com.digitalcafe.repository.MenuItemRepository;
+import com.digitalcafe.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves minimal valid rows for tests. Names are made unique, so tests sharing the context
+ * never collide on unique columns.
+ */
+@TestComponent
+public class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private CafeTableRepository tableRepository;
+
+    public User user(User.Role role) {
+        long n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@example.com");
+        user.setPassword("password");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    public Cafe cafe() {
+        Cafe cafe = new Cafe();
+        cafe.setName("Cafe " + SEQUENCE.incrementAndGet());
+        cafe.setAddress("1 Test Street");
+        cafe.setCity("Testville");
+        cafe.setPhone("0000000000");
+        cafe.setOwner(user(User.Role.CAFE_OWNER));
+        return cafeRepository.save(cafe);
+    }
+
+    public Category category() {
+        Category category = new Category();
+        category.setName("Category " + SEQUENCE.incrementAndGet());
+        return categoryRepository.save(category);
+    }
+
+    public MenuItem menuItem(Cafe cafe, Category category, String price, Integer stockQuantity) {
+        MenuItem item = new MenuItem();
+        item.setName("Item " + SEQUENCE.incrementAndGet());
+        item.setPrice(new BigDecimal(price));
+        item.setCafe(cafe);
+        item.setCategory(category);
+        item.setStockQuantity(stockQuantity);
+        return menuItemRepository.save(item);
+    }
+
+    public CafeTable table(Cafe cafe) {
+        CafeTable table = new CafeTable();
+        table.setTableNumber("T" + SEQUENCE.incrementAndGet());
+        table.setCapacity(4);
+        table.setCafe(cafe);
+        return tableRepository.save(table);
+    }
+}
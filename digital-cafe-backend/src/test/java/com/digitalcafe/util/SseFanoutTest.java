@@ -0,0 +1,125 @@
+package com.digitalcafe.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class SseFanoutTest {
+
+    private static final long CAFE_ID = 1L;
+    private static final int MAX_PENDING = 32;
+
+    private final CountDownLatch releaseStalled = new CountDownLatch(1);
+    private final AtomicBoolean nextStalls = new AtomicBoolean();
+    private final SseFanout fanout = new SseFanout("sse-fanout-test", 60_000, MAX_PENDING) {
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            return nextStalls.getAndSet(false) ? new StalledEmitter() : new RecordingEmitter();
+        }
+    };
+
+    @AfterEach
+    void stopWriters() {
+        releaseStalled.countDown();
+        fanout.shutdown();
+    }
+
+    // Sized by -Dsse.fanout.benchmark.subscribers; the default keeps the suite fast
+    @Test
+    void everySubscriberGetsEveryEventWhileAStalledOneIsDropped() throws Exception {
+        int subscriberCount = Integer.getInteger("sse.fanout.benchmark.subscribers", 1_000);
+        int eventCount = MAX_PENDING + 8;
+        List<RecordingEmitter> clients = new ArrayList<>();
+        for (int i = 0; i < subscriberCount; i++) {
+            clients.add((RecordingEmitter) fanout.subscribe(CAFE_ID, event(0)));
+        }
+        AtomicInteger stalledClosed = new AtomicInteger();
+        nextStalls.set(true);
+        StalledEmitter stalled = (StalledEmitter) fanout.subscribe(CAFE_ID, event(0), stalledClosed::incrementAndGet);
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+        long slowestBroadcast = 0;
+        long started = System.nanoTime();
+        for (int n = 1; n <= eventCount; n++) {
+            long broadcastStarted = System.nanoTime();
+            fanout.broadcast(CAFE_ID, event(n));
+            slowestBroadcast = Math.max(slowestBroadcast, System.nanoTime() - broadcastStarted);
+            // Paced so only the stalled client can fall behind
+            awaitFrames(clients, n + 1);
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("SSE fanout to {} subscribers: {} events delivered in {} ms, slowest broadcast {} us",
+                subscriberCount, eventCount, elapsedMillis, slowestBroadcast / 1_000);
+
+        for (RecordingEmitter client : clients) {
+            assertEquals(eventCount + 1, client.frames.size());
+            assertTrue(client.lastData().contains("order-" + eventCount));
+        }
+        assertEquals(1, stalledClosed.get());
+        assertEquals(subscriberCount, fanout.getSubscriberCount(CAFE_ID));
+        // Queuing a frame never waits on a client, stalled or not
+        assertTrue(slowestBroadcast < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void awaitFrames(List<RecordingEmitter> clients, int frames) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (RecordingEmitter client : clients) {
+            while (client.frames.size() < frames && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(int n) {
+        return SseEmitter.event().name("order").data("order-" + n);
+    }
+
+    // A client reading as fast as frames are written
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<Set<ResponseBodyEmitter.DataWithMediaType>> frames = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            frames.add(frame);
+        }
+
+        private String lastData() {
+            return frames.get(frames.size() - 1).stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining());
+        }
+    }
+
+    // A client that stopped reading: its first write never returns
+    private final class StalledEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> frame) throws IOException {
+            sending.countDown();
+            try {
+                releaseStalled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
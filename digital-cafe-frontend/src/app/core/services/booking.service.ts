@@ -1,7 +1,12 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, EMPTY } from 'rxjs';
+import { expand, reduce } from 'rxjs/operators';
 import { environment } from '../../../environments/environment';
+import { CursorPage } from '../../shared/models/order.model';
+
+// Largest page the booking endpoints serve
+const BOOKING_PAGE_SIZE = 100;
 
 export interface Booking {
   id?: number;
@@ -12,8 +17,9 @@ export interface Booking {
   customerId?: number;
   customerName?: string;
   numberOfGuests: number;
-  bookingDate: string;
-  bookingTime: string;
+  // ISO local date-time the table is booked from
+  bookingDateTime: string;
+  durationMinutes?: number;
   status: string;
   specialRequests?: string;
   createdAt?: string;
@@ -41,7 +47,7 @@ export interface CafeTable {
   providedIn: 'root',
 })
 export class BookingService {
-  private apiUrl = `${environment.apiUrl}/bookings`;
+  private apiUrl = `${environment.apiUrl}/api/bookings`;
 
   constructor(private http: HttpClient) {}
 
@@ -53,13 +59,13 @@ export class BookingService {
     return this.http.get<Booking>(`${this.apiUrl}/${id}`);
   }
 
+  // Bookings of the signed-in customer, every page
   getMyBookings(): Observable<Booking[]> {
-    const customerId = this.getCurrentUserId();
-    return this.http.get<Booking[]>(`${this.apiUrl}/customer/${customerId}`);
+    return this.getAllPages(`${this.apiUrl}/my-bookings`);
   }
 
   getBookingsByCafe(cafeId: number): Observable<Booking[]> {
-    return this.http.get<Booking[]>(`${this.apiUrl}/cafe/${cafeId}`);
+    return this.getAllPages(`${this.apiUrl}/cafe/${cafeId}`);
   }
 
   createBooking(booking: BookingRequest): Observable<Booking> {
@@ -80,9 +86,15 @@ export class BookingService {
     });
   }
 
-  private getCurrentUserId(): number {
-    // Get from auth service or local storage
-    const user = JSON.parse(localStorage.getItem('user') || '{}');
-    return user.id || 0;
+  // Follows nextCursor until the last page, so callers see every matching booking
+  private getAllPages(url: string): Observable<Booking[]> {
+    const getPage = (cursor: string | null) =>
+      this.http.get<CursorPage<Booking>>(url, {
+        params: cursor ? { size: BOOKING_PAGE_SIZE, cursor } : { size: BOOKING_PAGE_SIZE },
+      });
+    return getPage(null).pipe(
+      expand((page) => (page.hasMore && page.nextCursor ? getPage(page.nextCursor) : EMPTY)),
+      reduce((all: Booking[], page) => all.concat(page.items), []),
+    );
   }
 }
@@ -0,0 +1,81 @@
+import { Injectable, NgZone } from '@angular/core';
+import { Observable } from 'rxjs';
+import { ApiService } from './api.service';
+import { environment } from '../../../environments/environment';
+
+export interface KitchenFeedEvent {
+  orderId: number;
+  orderNumber: string;
+  previousStatus: string | null;
+  status: string | null;
+  totalAmount: number;
+  createdAt: string;
+}
+
+interface StreamToken {
+  token: string;
+  expiresInSeconds: number;
+}
+
+const RECONNECT_DELAY_MS = 3000;
+
+@Injectable({
+  providedIn: 'root',
+})
+export class KitchenFeedService {
+  constructor(
+    private apiService: ApiService,
+    private zone: NgZone,
+  ) {}
+
+  // Live order transitions for one cafe. EventSource cannot send the Authorization header, so
+  // every connection first trades it for a short-lived stream token; a dropped or expired
+  // stream reconnects with a fresh one.
+  watchCafe(cafeId: number): Observable<KitchenFeedEvent> {
+    return new Observable<KitchenFeedEvent>((subscriber) => {
+      let source: EventSource | null = null;
+      let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+      let closed = false;
+
+      const reconnectLater = () => {
+        if (!closed) {
+          reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+        }
+      };
+
+      const connect = () => {
+        this.apiService.post<StreamToken>('/api/orders/stream-token', {}).subscribe({
+          next: ({ token }) => {
+            if (closed) {
+              return;
+            }
+            source = new EventSource(
+              `${environment.apiUrl}/api/orders/cafe/${cafeId}/stream?access_token=${encodeURIComponent(token)}`,
+            );
+            source.addEventListener('order', (message) => {
+              const event = JSON.parse((message as MessageEvent).data) as KitchenFeedEvent;
+              this.zone.run(() => subscriber.next(event));
+            });
+            source.onerror = () => {
+              // EventSource would retry the same URL, whose token has expired by then
+              source?.close();
+              source = null;
+              reconnectLater();
+            };
+          },
+          error: () => reconnectLater(),
+        });
+      };
+
+      connect();
+
+      return () => {
+        closed = true;
+        if (reconnectTimer) {
+          clearTimeout(reconnectTimer);
+        }
+        source?.close();
+      };
+    });
+  }
+}
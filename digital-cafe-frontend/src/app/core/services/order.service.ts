@@ -1,10 +1,13 @@
 import { Injectable } from '@angular/core';
-import { Observable, BehaviorSubject } from 'rxjs';
-import { tap } from 'rxjs/operators';
+import { Observable, BehaviorSubject, EMPTY } from 'rxjs';
+import { expand, reduce, tap } from 'rxjs/operators';
 import { ApiService } from './api.service';
-import { Order, OrderItem, CartItem, Booking, Payment } from '../../shared/models/order.model';
+import { Order, OrderItem, CartItem, Booking, Payment, CursorPage } from '../../shared/models/order.model';
 import { AuthService } from './auth.service';
 
+// Largest page the order and booking endpoints serve
+const PAGE_SIZE = 100;
+
 @Injectable({
   providedIn: 'root',
 })
@@ -111,7 +114,7 @@ export class OrderService {
   }
 
   getAllOrders(): Observable<Order[]> {
-    return this.apiService.get<Order[]>('/api/orders');
+    return this.getAllPages<Order>('/api/orders');
   }
 
   getOrderById(orderId: number): Observable<Order> {
@@ -119,7 +122,7 @@ export class OrderService {
   }
 
   getCustomerOrders(customerId: number): Observable<Order[]> {
-    return this.apiService.get<Order[]>(`/api/orders/customer/${customerId}`);
+    return this.getAllPages<Order>(`/api/orders/customer/${customerId}`);
   }
 
   getMyOrders(): Observable<Order[]> {
@@ -131,11 +134,11 @@ export class OrderService {
   }
 
   getCafeOrders(cafeId: number): Observable<Order[]> {
-    return this.apiService.get<Order[]>(`/api/orders/cafe/${cafeId}`);
+    return this.getAllPages<Order>(`/api/orders/cafe/${cafeId}`);
   }
 
   getOrdersByStatus(status: string): Observable<Order[]> {
-    return this.apiService.get<Order[]>(`/api/orders/status/${status}`);
+    return this.getAllPages<Order>(`/api/orders/status/${status}`);
   }
 
   updateOrder(orderId: number, order: Order): Observable<Order> {
@@ -187,15 +190,16 @@ export class OrderService {
     return this.apiService.get<Booking>(`/api/bookings/${bookingId}`);
   }
 
-  getCustomerBookings(customerId: number): Observable<Booking[]> {
-    return this.apiService.get<Booking[]>(`/api/bookings/customer/${customerId}`);
+  // Bookings of the signed-in customer; the server takes the customer from the token
+  getCustomerBookings(): Observable<Booking[]> {
+    return this.getAllPages<Booking>('/api/bookings/my-bookings');
   }
 
   getCafeBookings(cafeId: number, date?: string): Observable<Booking[]> {
     const endpoint = date
-      ? `/api/bookings/cafe/${cafeId}?date=${date}`
+      ? `/api/bookings/cafe/${cafeId}?from=${date}&to=${date}`
       : `/api/bookings/cafe/${cafeId}`;
-    return this.apiService.get<Booking[]>(endpoint);
+    return this.getAllPages<Booking>(endpoint);
   }
 
   updateBookingStatus(bookingId: number, status: string): Observable<Booking> {
@@ -219,6 +223,21 @@ export class OrderService {
     return this.apiService.patch<Payment>(`/api/payments/${paymentId}/status`, { status });
   }
 
+  // Follows nextCursor until the last page, so callers see every matching row
+  private getAllPages<T>(endpoint: string): Observable<T[]> {
+    const separator = endpoint.includes('?') ? '&' : '?';
+    const pageUrl = (cursor: string | null) =>
+      `${endpoint}${separator}size=${PAGE_SIZE}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : '');
+    return this.apiService.get<CursorPage<T>>(pageUrl(null)).pipe(
+      expand((page) =>
+        page.hasMore && page.nextCursor
+          ? this.apiService.get<CursorPage<T>>(pageUrl(page.nextCursor))
+          : EMPTY,
+      ),
+      reduce((all: T[], page) => all.concat(page.items), []),
+    );
+  }
+
   getCurrentUserId(): number {
     const user = this.authService.getCurrentUser();
     return user?.id || 0;
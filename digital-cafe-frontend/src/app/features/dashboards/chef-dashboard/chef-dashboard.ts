@@ -1,8 +1,10 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { CommonModule } from '@angular/common';
 import { DashboardService, ChefDashboard } from '../../../core/services/dashboard.service';
 import { OrderService } from '../../../core/services/order.service';
 import { AuthService } from '../../../core/services/auth.service';
+import { KitchenFeedService } from '../../../core/services/kitchen-feed.service';
 
 @Component({
   selector: 'app-chef-dashboard',
@@ -11,17 +13,19 @@ import { AuthService } from '../../../core/services/auth.service';
   templateUrl: './chef-dashboard.html',
   styleUrl: './chef-dashboard.css',
 })
-export class ChefDashboardComponent implements OnInit {
+export class ChefDashboardComponent implements OnInit, OnDestroy {
   dashboard: ChefDashboard | null = null;
   isLoading = true;
   errorMessage = '';
   successMessage = '';
+  private feedSubscription?: Subscription;
   cafeId = 1; // This should come from the logged-in chef's cafe
 
   constructor(
     private dashboardService: DashboardService,
     private orderService: OrderService,
     private authService: AuthService,
+    private kitchenFeedService: KitchenFeedService,
   ) {}
 
   ngOnInit() {
@@ -29,6 +33,14 @@ export class ChefDashboardComponent implements OnInit {
     const currentUser = this.authService.getCurrentUser();
     // In production, fetch cafeId from user profile
     this.loadDashboard();
+    // Reload whenever an order of this cafe changes instead of waiting for a manual refresh
+    this.feedSubscription = this.kitchenFeedService
+      .watchCafe(this.cafeId)
+      .subscribe(() => this.loadDashboard());
+  }
+
+  ngOnDestroy() {
+    this.feedSubscription?.unsubscribe();
   }
 
   loadDashboard() {
@@ -54,15 +54,15 @@ export class CustomerDashboardComponent implements OnInit {
     this.isLoading = true;
     this.errorMessage = '';
 
-    // Load upcoming bookings
+    // Load upcoming bookings; the service follows every page, so the total counts them all
     this.bookingService.getMyBookings().subscribe({
       next: (bookings) => {
         const now = new Date();
         this.upcomingBookings = bookings
-          .filter((b: Booking) => b.status === 'CONFIRMED' && new Date(b.bookingDate) >= now)
+          .filter((b: Booking) => b.status === 'CONFIRMED' && new Date(b.bookingDateTime) >= now)
           .sort(
             (a: Booking, b: Booking) =>
-              new Date(a.bookingDate).getTime() - new Date(b.bookingDate).getTime(),
+              new Date(a.bookingDateTime).getTime() - new Date(b.bookingDateTime).getTime(),
           )
           .slice(0, 5);
         this.totalBookings = bookings.length;
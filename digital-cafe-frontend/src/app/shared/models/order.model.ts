@@ -54,3 +54,10 @@ export interface Payment {
   transactionId?: string;
   paymentDate?: string;
 }
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  size: number;
+}